@@ -0,0 +1,125 @@
+package com.example.bdsqltester.benchmarks;
+
+import com.example.bdsqltester.grading.AnswerKeyFingerprint;
+import com.example.bdsqltester.grading.GradingEngine;
+import com.example.bdsqltester.grading.RowHasher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Membandingkan penilaian lama (setiap baris diubah menjadi String lalu dibandingkan
+ * sebagai List dan HashSet, seperti UserController.calculateGrade/executeQuery sebelumnya)
+ * dengan GradingEngine yang membandingkan hash baris secara streaming.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class GradingBenchmark {
+    private static final String USER_QUERY = "user";
+    private static final String ANSWER_KEY = "key";
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    /** exact = nilai 100, unordered = nilai 50, different = nilai 0 */
+    @Param({"exact", "unordered", "different"})
+    public String scenario;
+
+    private SyntheticTable keyTable;
+    private SyntheticTable userTable;
+    private Connection connection;
+    private AnswerKeyFingerprint fingerprint;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        keyTable = SyntheticTable.generate(rows, 42);
+        userTable = switch (scenario) {
+            case "exact" -> keyTable;
+            case "unordered" -> keyTable.reversed();
+            case "different" -> keyTable.withChangedRow();
+            default -> throw new IllegalArgumentException(scenario);
+        };
+        connection = SyntheticTable.connection(Map.of(USER_QUERY, userTable, ANSWER_KEY, keyTable));
+        fingerprint = AnswerKeyFingerprint.capture(connection, ANSWER_KEY, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public int legacyStringSets() throws SQLException {
+        List<String> userResults = legacyExecuteQuery(userTable.resultSet());
+        List<String> correctResults = legacyExecuteQuery(keyTable.resultSet());
+
+        if (userResults.equals(correctResults)) return 100;
+
+        Set<String> userSet = new HashSet<>(userResults);
+        Set<String> correctSet = new HashSet<>(correctResults);
+        if (userSet.equals(correctSet)) return 50;
+        return 0;
+    }
+
+    @Benchmark
+    public int streamingHashes() throws SQLException {
+        return GradingEngine.grade(connection, connection, USER_QUERY, ANSWER_KEY);
+    }
+
+    @Benchmark
+    public int cachedFingerprint() throws SQLException {
+        return GradingEngine.grade(connection, USER_QUERY, fingerprint);
+    }
+
+    /** Hanya biaya encoding baris lama, tanpa perbandingan. */
+    @Benchmark
+    public List<String> legacyRowEncoding() throws SQLException {
+        return legacyExecuteQuery(userTable.resultSet());
+    }
+
+    /** Hanya biaya hashing baris, tanpa perbandingan. */
+    @Benchmark
+    public long rowHashing() throws SQLException {
+        ResultSet rs = userTable.resultSet();
+        int columnCount = rs.getMetaData().getColumnCount();
+        long sum = 0;
+        while (rs.next()) {
+            sum += RowHasher.hashRow(rs, columnCount);
+        }
+        return sum;
+    }
+
+    /** Salinan executeQuery lama dari UserController. */
+    private static List<String> legacyExecuteQuery(ResultSet rs) throws SQLException {
+        List<String> results = new ArrayList<>();
+        ResultSetMetaData meta = rs.getMetaData();
+        while (rs.next()) {
+            StringBuilder row = new StringBuilder();
+            for (int i = 1; i <= meta.getColumnCount(); i++) {
+                if (i > 1) row.append(",");
+                row.append(rs.getString(i) != null ? rs.getString(i) : "");
+            }
+            results.add(row.toString());
+        }
+        return results;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.bdsqltester.benchmarks;
+
+import com.example.bdsqltester.datasources.ResultCursor;
+import com.example.bdsqltester.scenes.QueryResultWindow;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.control.TableColumn;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mengukur pembuatan baris tabel hasil query: cara lama AdminController
+ * (createTableColumns/populateTableData, semua baris sekaligus) dibandingkan
+ * dengan ResultCursor yang dipakai QueryResultWindow.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+// TableColumn memuat toolkit JavaFX; renderer software supaya tetap jalan tanpa GPU
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-Dprism.order=sw"})
+@State(Scope.Benchmark)
+public class MaterializationBenchmark {
+    private static final String QUERY = "query";
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private SyntheticTable table;
+    private Connection connection;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        table = SyntheticTable.generate(rows, 42);
+        connection = SyntheticTable.connection(Map.of(QUERY, table));
+    }
+
+    /** Salinan createTableColumns + populateTableData lama dari AdminController. */
+    @Benchmark
+    public ObservableList<ArrayList<String>> legacyPopulateTableData(Blackhole blackhole) throws SQLException {
+        ResultSet rs = table.resultSet();
+        ResultSetMetaData metaData = rs.getMetaData();
+        blackhole.consume(createTableColumns(metaData));
+
+        ObservableList<ArrayList<String>> data = FXCollections.observableArrayList();
+        while (rs.next()) {
+            ArrayList<String> row = new ArrayList<>();
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                row.add(rs.getString(i) != null ? rs.getString(i) : "");
+            }
+            data.add(row);
+        }
+        return data;
+    }
+
+    /** Semua baris diambil per halaman QueryResultWindow.PAGE_SIZE tanpa batas baris/byte. */
+    @Benchmark
+    public ObservableList<ArrayList<String>> resultCursorAllPages() {
+        ResultCursor cursor = ResultCursor.open(() -> connection, QUERY, Integer.MAX_VALUE, Long.MAX_VALUE).join();
+        ObservableList<ArrayList<String>> data = FXCollections.observableArrayList();
+        while (!cursor.isExhausted()) {
+            data.addAll(cursor.fetch(QueryResultWindow.PAGE_SIZE).join());
+        }
+        cursor.close();
+        return data;
+    }
+
+    /** Halaman pertama saja, yaitu yang ditunggu user sebelum tabel tampil. */
+    @Benchmark
+    public List<ArrayList<String>> resultCursorFirstPage() {
+        ResultCursor cursor = ResultCursor.open(() -> connection, QUERY, Integer.MAX_VALUE, Long.MAX_VALUE).join();
+        List<ArrayList<String>> page = cursor.fetch(QueryResultWindow.PAGE_SIZE).join();
+        cursor.close();
+        return page;
+    }
+
+    private static List<TableColumn<ArrayList<String>, String>> createTableColumns(ResultSetMetaData metaData)
+            throws SQLException {
+        List<TableColumn<ArrayList<String>, String>> columns = new ArrayList<>();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            final int colIdx = i - 1;
+            TableColumn<ArrayList<String>, String> col = new TableColumn<>(metaData.getColumnLabel(i));
+            col.setCellValueFactory(cellData ->
+                    new SimpleStringProperty(
+                            cellData.getValue().size() > colIdx ?
+                                    cellData.getValue().get(colIdx) : ""
+                    )
+            );
+            col.setPrefWidth(120);
+            columns.add(col);
+        }
+        return columns;
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.bdsqltester.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Data hasil query buatan untuk benchmark. Setiap sel disimpan sebagai byte UTF-8,
+ * sama seperti pgjdbc menyimpan baris berformat teks: getBytes() mengembalikan array
+ * yang sama tanpa salinan, sedangkan getString() membuat String baru setiap kali dipanggil.
+ *
+ * ResultSet, Statement dan Connection dibuat dengan java.lang.reflect.Proxy, jadi setiap
+ * pemanggilan punya overhead yang sama untuk semua benchmark.
+ */
+public final class SyntheticTable {
+    private static final String[] COLUMNS = {"id", "name", "city", "score"};
+    private static final String[] CITIES = {"Jakarta", "Bandung", "Surabaya", "Yogyakarta", "Medan", "Makassar"};
+
+    private final byte[][][] rows;
+
+    private SyntheticTable(byte[][][] rows) {
+        this.rows = rows;
+    }
+
+    /** Tabel id, name, city, score dengan sekitar 5% score bernilai NULL. */
+    public static SyntheticTable generate(int rowCount, long seed) {
+        Random random = new Random(seed);
+        byte[][][] rows = new byte[rowCount][][];
+        for (int i = 0; i < rowCount; i++) {
+            rows[i] = new byte[][]{
+                    utf8(Integer.toString(i + 1)),
+                    utf8("student_" + Integer.toHexString(random.nextInt())),
+                    utf8(CITIES[random.nextInt(CITIES.length)]),
+                    random.nextInt(20) == 0 ? null : utf8(Integer.toString(random.nextInt(101)))
+            };
+        }
+        return new SyntheticTable(rows);
+    }
+
+    public int rowCount() {
+        return rows.length;
+    }
+
+    /** Baris yang sama dengan urutan terbalik (nilai 50 saat dibandingkan dengan tabel asal). */
+    public SyntheticTable reversed() {
+        byte[][][] copy = new byte[rows.length][][];
+        for (int i = 0; i < rows.length; i++) {
+            copy[i] = rows[rows.length - 1 - i];
+        }
+        return new SyntheticTable(copy);
+    }
+
+    /** Salinan dengan satu baris berbeda di tengah tabel (nilai 0). */
+    public SyntheticTable withChangedRow() {
+        byte[][][] copy = Arrays.copyOf(rows, rows.length);
+        if (copy.length > 0) {
+            int index = copy.length / 2;
+            copy[index] = copy[index].clone();
+            copy[index][1] = utf8("changed");
+        }
+        return new SyntheticTable(copy);
+    }
+
+    public ResultSet resultSet() {
+        return (ResultSet) Proxy.newProxyInstance(SyntheticTable.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class}, new ResultSetHandler());
+    }
+
+    /** Connection yang menjalankan query dengan mengembalikan tabel sesuai teks SQL-nya. */
+    public static Connection connection(Map<String, SyntheticTable> tablesBySql) {
+        return (Connection) Proxy.newProxyInstance(SyntheticTable.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("createStatement")) return statement(tablesBySql);
+                    return defaultValue(method.getReturnType());
+                });
+    }
+
+    private static Statement statement(Map<String, SyntheticTable> tablesBySql) {
+        return (Statement) Proxy.newProxyInstance(SyntheticTable.class.getClassLoader(),
+                new Class<?>[]{Statement.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("executeQuery")) {
+                        SyntheticTable table = tablesBySql.get((String) args[0]);
+                        if (table == null) throw new SQLException("Unknown query: " + args[0]);
+                        return table.resultSet();
+                    }
+                    return defaultValue(method.getReturnType());
+                });
+    }
+
+    private static ResultSetMetaData metaData() {
+        return (ResultSetMetaData) Proxy.newProxyInstance(SyntheticTable.class.getClassLoader(),
+                new Class<?>[]{ResultSetMetaData.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getColumnCount" -> COLUMNS.length;
+                    case "getColumnLabel", "getColumnName" -> COLUMNS[(Integer) args[0] - 1];
+                    default -> defaultValue(method.getReturnType());
+                });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        return null;
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private class ResultSetHandler implements InvocationHandler {
+        private int index = -1;
+        private boolean wasNull;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+            switch (method.getName()) {
+                case "next":
+                    return ++index < rows.length;
+                case "getBytes": {
+                    byte[] value = cell(args[0]);
+                    wasNull = value == null;
+                    return value;
+                }
+                case "getString":
+                case "getObject": {
+                    byte[] value = cell(args[0]);
+                    wasNull = value == null;
+                    return value == null ? null : new String(value, StandardCharsets.UTF_8);
+                }
+                case "wasNull":
+                    return wasNull;
+                case "getMetaData":
+                    return metaData();
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        }
+
+        private byte[] cell(Object column) throws SQLException {
+            if (!(column instanceof Integer i)) throw new SQLException("Only column indexes are supported");
+            return rows[index][i - 1];
+        }
+    }
+}
@@ -1,5 +1,10 @@
 package com.example.bdsqltester;
 
+import com.example.bdsqltester.datasources.GradingDataSource;
+import com.example.bdsqltester.datasources.MainDataSource;
+import com.example.bdsqltester.datasources.QueryMetrics;
+import com.example.bdsqltester.datasources.StartupTimer;
+import com.example.bdsqltester.grading.GradingWorkerPool;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -10,6 +15,8 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 
 public class HelloApplication extends Application {
+    private static final Logger log = LoggerFactory.getLogger(HelloApplication.class);
+
     private static HelloApplication applicationInstance;
     private Stage primaryStage;
     public static HelloApplication getApplicationInstance () { return applicationInstance; }
@@ -25,10 +32,33 @@ public class HelloApplication extends Application {
 
         stage.setTitle("Login");
         stage.setScene(scene);
+        stage.setOnShown(e -> StartupTimer.firstFrame());
         stage.show();
+
+        QueryMetrics.startReporter();
+
+        // Pool utama dibuat di background supaya layar login tidak menunggu koneksi database.
+        // Worker grading (hanya jika grading.workers > 0) baru dijalankan setelahnya; jika gagal,
+        // worker akan mencoba lagi sendiri.
+        int workers = GradingWorkerPool.getConfiguredWorkers();
+        MainDataSource.warmUp().whenComplete((ignored, error) -> {
+            if (error != null) {
+                log.warn("Main pool warm-up failed: {}", error.getMessage());
+            }
+            if (workers > 0) GradingWorkerPool.start(workers);
+        });
+    }
+
+    @Override
+    public void stop() {
+        GradingWorkerPool.stop();
+        QueryMetrics.stopReporter();
+        GradingDataSource.close();
+        MainDataSource.close();
     }
 
     public static void main(String[] args) {
+        StartupTimer.start();
         launch();
     }
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+package com.example.bdsqltester.auth;
+
+import com.example.bdsqltester.datasources.DataSourceConfig;
+import com.example.bdsqltester.datasources.DatabaseExecutor;
+import com.example.bdsqltester.datasources.UserRepository;
+import com.example.bdsqltester.datasources.UserRepository.Credentials;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Login dengan satu query (id, role dan hash password berdasarkan username), lalu hash
+ * diverifikasi di aplikasi dengan {@link PasswordHasher}. Password lama yang masih tersimpan
+ * apa adanya, atau hash dengan iterasi lebih kecil dari auth.pbkdf2Iterations, di-hash ulang
+ * setelah login berhasil.
+ */
+public final class AuthService {
+    public static final String ROLE_ADMIN = "admin";
+
+    private static final Logger log = LoggerFactory.getLogger(AuthService.class);
+
+    private static final int ITERATIONS = DataSourceConfig.getInt("auth.pbkdf2Iterations", 310_000);
+
+    private AuthService() {
+    }
+
+    /**
+     * Mengembalikan session jika username, password dan role cocok, atau null jika tidak.
+     * roleChoice adalah pilihan di halaman login ("Admin" atau "User").
+     */
+    public static CompletableFuture<Session> login(String username, String password, String roleChoice) {
+        return DatabaseExecutor.supplyAsync(() -> {
+            Credentials credentials = UserRepository.findCredentials(username);
+            if (credentials == null) {
+                PasswordHasher.verify(password, DummyHash.VALUE);
+                return null;
+            }
+            if (!PasswordHasher.verify(password, credentials.passwordHash) || !matchesRole(credentials.role, roleChoice)) {
+                return null;
+            }
+            if (PasswordHasher.needsRehash(credentials.passwordHash, ITERATIONS)) {
+                upgradeHash(credentials, password);
+            }
+
+            return new Session(credentials.id, username, credentials.role);
+        });
+    }
+
+    /** Hash untuk password baru dengan iterasi auth.pbkdf2Iterations. */
+    public static String hashPassword(String password) {
+        return PasswordHasher.hash(password, ITERATIONS);
+    }
+
+    /**
+     * Password dari file import user: di-hash seperti password baru, kecuali nilainya sudah
+     * berupa hash {@link PasswordHasher} (misalnya hasil export dari instance lain).
+     */
+    public static String hashImportedPassword(String password) {
+        return PasswordHasher.isHashed(password) ? password : hashPassword(password);
+    }
+
+    /** "User" di halaman login mencakup role user dan student. */
+    private static boolean matchesRole(String role, String roleChoice) {
+        if (role == null) return false;
+        String expected = roleChoice.toLowerCase();
+        return role.equals(expected) || (expected.equals("user") && role.equals("student"));
+    }
+
+    private static void upgradeHash(Credentials credentials, String password) {
+        String hash = hashPassword(password);
+        UserRepository.replacePasswordHash(credentials.id, credentials.passwordHash, hash).whenComplete((updated, e) -> {
+            if (e != null) log.warn("Failed to upgrade password hash for user {}: {}", credentials.id, e.getMessage());
+        });
+    }
+
+    /**
+     * Dipakai saat username tidak ditemukan supaya waktu respons sama dengan password salah.
+     * Dibuat saat pertama dipakai (di thread database), bukan saat class di-load.
+     */
+    private static final class DummyHash {
+        static final String VALUE = PasswordHasher.hash("", ITERATIONS);
+    }
+}
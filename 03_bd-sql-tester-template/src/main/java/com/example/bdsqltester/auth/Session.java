@@ -0,0 +1,18 @@
+package com.example.bdsqltester.auth;
+
+/** User yang sedang login, dibuat oleh {@link AuthService#login}. */
+public class Session {
+    public final long userId;
+    public final String username;
+    public final String role;
+
+    Session(long userId, String username, String role) {
+        this.userId = userId;
+        this.username = username;
+        this.role = role;
+    }
+
+    public boolean isAdmin() {
+        return AuthService.ROLE_ADMIN.equals(role);
+    }
+}
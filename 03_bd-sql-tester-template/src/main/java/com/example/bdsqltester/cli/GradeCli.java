@@ -0,0 +1,204 @@
+package com.example.bdsqltester.cli;
+
+import com.example.bdsqltester.datasources.AssignmentRepository;
+import com.example.bdsqltester.datasources.GradingDataSource;
+import com.example.bdsqltester.datasources.LatencyHistogram;
+import com.example.bdsqltester.datasources.MainDataSource;
+import com.example.bdsqltester.datasources.QueryGovernor;
+import com.example.bdsqltester.dtos.Assignment;
+import com.example.bdsqltester.grading.AnswerKeyCache;
+import com.example.bdsqltester.grading.AnswerKeyFingerprint;
+import com.example.bdsqltester.grading.GradingEngine;
+import com.example.bdsqltester.grading.MultiDatasetGrader;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Menilai semua file .sql di satu direktori tanpa GUI, misalnya untuk menilai di server
+ * atau mengukur throughput grading di CI. Memakai {@link MultiDatasetGrader} dan cache yang
+ * sama dengan worker grading di aplikasi.
+ *
+ * <pre>
+ * GradeCli --assignment &lt;id&gt; --dir &lt;direktori&gt; [--out results.csv] [--threads N] [--answer-key kunci.sql]
+ * </pre>
+ *
+ * Kunci jawaban dibaca dari database utama, kecuali --answer-key diberikan (database utama
+ * tidak dipakai sama sekali). Hasil per submission: file,grade,millis,dataset_grades,error.
+ * Exit code 0 jika semua file dinilai, 1 jika ada yang gagal karena koneksi, 2 jika argumen salah.
+ */
+public final class GradeCli {
+    private static final String USAGE = "Usage: GradeCli --assignment <id> --dir <directory> "
+            + "[--out results.csv] [--threads N] [--answer-key file.sql]";
+
+    private GradeCli() {
+    }
+
+    public static void main(String[] args) {
+        int exitCode;
+        try {
+            exitCode = run(args, System.out, System.err);
+        } finally {
+            GradingDataSource.close();
+            MainDataSource.close();
+        }
+        System.exit(exitCode);
+    }
+
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        Long assignmentId = null;
+        Path dir = null;
+        Path resultsFile = Path.of("results.csv");
+        Path answerKeyFile = null;
+        int threads = 0;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String value = i + 1 < args.length ? args[i + 1] : null;
+                switch (args[i]) {
+                    case "--assignment" -> assignmentId = Long.parseLong(value);
+                    case "--dir" -> dir = Path.of(value);
+                    case "--out" -> resultsFile = Path.of(value);
+                    case "--threads" -> threads = Integer.parseInt(value);
+                    case "--answer-key" -> answerKeyFile = Path.of(value);
+                    default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+                }
+                i++;
+            }
+        } catch (RuntimeException e) {
+            err.println(e.getMessage() != null ? e.getMessage() : "Missing argument value");
+            err.println(USAGE);
+            return 2;
+        }
+        if (assignmentId == null || dir == null || !Files.isDirectory(dir)) {
+            err.println(USAGE);
+            return 2;
+        }
+
+        try {
+            String answerKey = answerKeyFile != null
+                    ? Files.readString(answerKeyFile, StandardCharsets.UTF_8)
+                    : loadAnswerKey(assignmentId);
+            if (answerKey == null) {
+                err.println("Assignment " + assignmentId + " not found");
+                return 2;
+            }
+            List<Path> files = listSubmissions(dir);
+            if (threads <= 0) threads = GradingDataSource.getMaximumPoolSize();
+            return gradeAll(assignmentId, answerKey, files, threads, resultsFile, out);
+        } catch (IOException | SQLException | RuntimeException e) {
+            // Misalnya pool tidak bisa dibuat karena database tidak bisa dihubungi
+            err.println("Grading failed: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    private static String loadAnswerKey(long assignmentId) {
+        Assignment assignment = AssignmentRepository.findById(assignmentId).join();
+        return assignment != null ? assignment.answerKey : null;
+    }
+
+    private static List<Path> listSubmissions(Path dir) throws IOException {
+        try (Stream<Path> entries = Files.list(dir)) {
+            return entries.filter(path -> Files.isRegularFile(path) && path.getFileName().toString().endsWith(".sql"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static int gradeAll(long assignmentId, String answerKey, List<Path> files, int threads,
+                                Path resultsFile, PrintStream out) throws IOException, SQLException {
+        long start = System.nanoTime();
+
+        // Kunci jawaban dijalankan sekali sebelum semua thread mulai, bukan oleh setiap thread yang cache miss
+        AnswerKeyCache.invalidate(assignmentId);
+        try (Connection c = GradingDataSource.getConnection(QueryGovernor.ROLE_ADMIN)) {
+            AnswerKeyFingerprint fingerprint = AnswerKeyFingerprint.capture(c, answerKey, AnswerKeyCache.getMaxRowsPerEntry());
+            if (fingerprint != null) AnswerKeyCache.put(assignmentId, answerKey, fingerprint);
+        }
+
+        LatencyHistogram latency = new LatencyHistogram();
+        AtomicInteger connectionFailures = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "cli-grader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<String>> rows = new ArrayList<>(files.size());
+        try {
+            for (Path file : files) {
+                rows.add(pool.submit(() -> gradeOne(assignmentId, answerKey, file, latency, connectionFailures)));
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(resultsFile, StandardCharsets.UTF_8)) {
+                writer.write("file,grade,millis,dataset_grades,error");
+                writer.newLine();
+                for (Future<String> row : rows) {
+                    writer.write(row.get());
+                    writer.newLine();
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new SQLException("Grading failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Grading interrupted", e);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        out.printf("Graded %d submissions in %.2f s (%.1f/s, %d threads) -> %s%n",
+                files.size(), seconds, seconds > 0 ? files.size() / seconds : 0, threads, resultsFile);
+        out.printf("Per submission: mean %.1f ms, p50 %.1f ms, p95 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                latency.getMeanMillis(), latency.getPercentileMillis(50), latency.getPercentileMillis(95),
+                latency.getPercentileMillis(99), latency.getMaxMillis());
+        if (connectionFailures.get() > 0) {
+            out.printf("%d submissions could not be graded because of connection failures%n", connectionFailures.get());
+            return 1;
+        }
+        return 0;
+    }
+
+    private static String gradeOne(long assignmentId, String answerKey, Path file,
+                                   LatencyHistogram latency, AtomicInteger connectionFailures) throws IOException {
+        String query = Files.readString(file, StandardCharsets.UTF_8);
+        long start = System.nanoTime();
+        int grade = GradingEngine.NO_SCORE;
+        String datasetGrades = null;
+        String error = null;
+        try {
+            MultiDatasetGrader.Result result = MultiDatasetGrader.grade(assignmentId, query, answerKey);
+            grade = result.getGrade();
+            datasetGrades = result.summary();
+        } catch (SQLException e) {
+            if (GradingEngine.isConnectionFailure(e)) connectionFailures.incrementAndGet();
+            error = e.getMessage();
+        }
+        long elapsed = System.nanoTime() - start;
+        latency.recordNanos(elapsed);
+        return csv(file.getFileName().toString()) + "," + grade + "," + String.format(Locale.ROOT, "%.3f", elapsed / 1e6)
+                + "," + csv(datasetGrades) + "," + csv(error);
+    }
+
+    private static String csv(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
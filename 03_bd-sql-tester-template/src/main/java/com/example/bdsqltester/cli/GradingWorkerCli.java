@@ -0,0 +1,59 @@
+package com.example.bdsqltester.cli;
+
+import com.example.bdsqltester.datasources.GradingDataSource;
+import com.example.bdsqltester.datasources.MainDataSource;
+import com.example.bdsqltester.grading.GradingWorkerPool;
+
+/**
+ * Menjalankan worker grading tanpa GUI, di server yang boleh membaca kunci jawaban.
+ * Aplikasi mahasiswa hanya menyimpan submission; server ini yang menilainya.
+ *
+ * <pre>
+ * GradingWorkerCli [--workers N]
+ * </pre>
+ *
+ * Jumlah worker bawaan: grading.workers, atau 2 jika tidak diisi. Berjalan sampai dihentikan
+ * (Ctrl+C / SIGTERM); submission yang sedang dinilai saat itu dikembalikan ke antrian oleh
+ * worker lain setelah grading.claimTimeoutSeconds. Exit code 2 jika argumen salah.
+ */
+public final class GradingWorkerCli {
+    private static final String USAGE = "Usage: GradingWorkerCli [--workers N]";
+
+    private GradingWorkerCli() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int configured = GradingWorkerPool.getConfiguredWorkers();
+        int workers = configured > 0 ? configured : GradingWorkerPool.DEFAULT_WORKERS;
+        try {
+            workers = parseWorkers(args, workers);
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            GradingWorkerPool.stop();
+            GradingDataSource.close();
+            MainDataSource.close();
+        }, "grading-worker-shutdown"));
+
+        GradingWorkerPool.start(workers);
+        System.out.printf("Grading submissions with %d workers, press Ctrl+C to stop%n", workers);
+        // Worker berjalan di daemon thread; thread main menahan JVM sampai dihentikan
+        Thread.currentThread().join();
+    }
+
+    static int parseWorkers(String[] args, int workers) {
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            if (value == null) throw new IllegalArgumentException("Missing value for " + args[i]);
+            if (!args[i].equals("--workers")) throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            workers = Integer.parseInt(value);
+            i++;
+        }
+        if (workers <= 0) throw new IllegalArgumentException("--workers must be positive");
+        return workers;
+    }
+}
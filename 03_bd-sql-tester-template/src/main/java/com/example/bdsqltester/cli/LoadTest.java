@@ -0,0 +1,360 @@
+package com.example.bdsqltester.cli;
+
+import com.example.bdsqltester.auth.AuthService;
+import com.example.bdsqltester.auth.Session;
+import com.example.bdsqltester.datasources.AssignmentCatalog;
+import com.example.bdsqltester.datasources.AssignmentRepository;
+import com.example.bdsqltester.datasources.DatabaseExecutor;
+import com.example.bdsqltester.datasources.GradingDataSource;
+import com.example.bdsqltester.datasources.LatencyHistogram;
+import com.example.bdsqltester.datasources.MainDataSource;
+import com.example.bdsqltester.datasources.QueryGovernor;
+import com.example.bdsqltester.datasources.QueryMetrics;
+import com.example.bdsqltester.datasources.ResultCursor;
+import com.example.bdsqltester.datasources.SubmissionRepository;
+import com.example.bdsqltester.datasources.SubmissionRepository.SubmissionStatus;
+import com.example.bdsqltester.datasources.UserRepository;
+import com.example.bdsqltester.dtos.Assignment;
+import com.example.bdsqltester.grading.GradingWorkerPool;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Mensimulasikan banyak mahasiswa sekaligus tanpa GUI untuk mengukur kapasitas satu deployment
+ * sql-tester + oracle_hr (misalnya PostgreSQL dari postgres-docker/docker-compose.yml).
+ *
+ * <pre>
+ * LoadTest [--students N] [--duration detik] [--think-ms N] [--tests N] [--prefix loadtest]
+ *          [--password secret] [--workers N] [--queries direktori] [--out report.csv]
+ * </pre>
+ *
+ * Setiap mahasiswa berjalan di virtual thread sendiri dan memakai kode akses data yang sama dengan
+ * LoginController dan UserController: login, daftar assignment, buka instruksi, beberapa kali "Test"
+ * (halaman pertama hasil query), lalu submit dan menunggu nilai dari GradingWorkerPool.
+ * Akun prefix_0001..prefix_N dibuat jika belum ada. Query yang dijalankan diambil acak dari file .sql
+ * di --queries, atau kunci jawaban assignment jika tidak diberikan.
+ *
+ * Laporan per operasi: jumlah, error, throughput, p50/p95/p99/max latensi dan waktu tunggu pool.
+ * Exit code 0 jika tidak ada error, 1 jika ada operasi yang gagal, 2 jika argumen salah.
+ */
+public final class LoadTest {
+    private static final String USAGE = "Usage: LoadTest [--students N] [--duration seconds] [--think-ms N] "
+            + "[--tests N] [--prefix loadtest] [--password secret] [--workers N] [--queries directory] [--out report.csv]";
+    private static final String[] OPERATIONS = {"login", "list", "open", "test", "submit", "grade"};
+    // Batas menunggu nilai setelah durasi habis, supaya submission terakhir tetap terukur
+    private static final long GRADE_GRACE_MILLIS = 60_000;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) {
+        // Harus diset sebelum DatabaseExecutor dimuat; tanpa ini semua mahasiswa berbagi 4 thread
+        if (System.getProperty("executor.virtualThreads") == null) {
+            System.setProperty("executor.virtualThreads", "true");
+        }
+        int exitCode;
+        try {
+            exitCode = run(args, System.out, System.err);
+        } finally {
+            GradingWorkerPool.stop();
+            GradingDataSource.close();
+            MainDataSource.close();
+        }
+        System.exit(exitCode);
+    }
+
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        Options options = new Options();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String value = i + 1 < args.length ? args[i + 1] : null;
+                if (value == null) throw new IllegalArgumentException("Missing value for " + args[i]);
+                switch (args[i]) {
+                    case "--students" -> options.students = Integer.parseInt(value);
+                    case "--duration" -> options.durationSeconds = Integer.parseInt(value);
+                    case "--think-ms" -> options.thinkMillis = Integer.parseInt(value);
+                    case "--tests" -> options.testsPerSubmit = Integer.parseInt(value);
+                    case "--prefix" -> options.prefix = value;
+                    case "--password" -> options.password = value;
+                    case "--workers" -> options.workers = Integer.parseInt(value);
+                    case "--queries" -> options.queriesDir = Path.of(value);
+                    case "--out" -> options.reportFile = Path.of(value);
+                    default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+                }
+                i++;
+            }
+        } catch (RuntimeException e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            return 2;
+        }
+        if (options.students <= 0 || options.durationSeconds <= 0 || options.thinkMillis < 0
+                || options.testsPerSubmit < 0 || options.workers < 0 || options.prefix == null
+                || (options.queriesDir != null && !Files.isDirectory(options.queriesDir))) {
+            err.println(USAGE);
+            return 2;
+        }
+
+        try {
+            List<String> usernames = new ArrayList<>(options.students);
+            for (int i = 1; i <= options.students; i++) {
+                usernames.add(String.format(Locale.ROOT, "%s_%04d", options.prefix, i));
+            }
+            int created = UserRepository.createMissing(usernames, "student",
+                    AuthService.hashPassword(options.password)).join();
+            if (created > 0) out.printf("Created %d student accounts (%s_0001..)%n", created, options.prefix);
+
+            List<Assignment> assignments = AssignmentCatalog.list().join();
+            if (assignments.isEmpty()) {
+                err.println("No assignments to work on");
+                return 2;
+            }
+            Map<Long, List<String>> queries = loadQueries(options.queriesDir, assignments);
+
+            if (options.workers > 0) GradingWorkerPool.start(options.workers);
+            return simulate(options, usernames, assignments, queries, out);
+        } catch (IOException | RuntimeException e) {
+            // Misalnya pool tidak bisa dibuat karena database tidak bisa dihubungi
+            err.println("Load test failed: " + DatabaseExecutor.unwrap(e).getMessage());
+            return 1;
+        }
+    }
+
+    /** Query per assignment; dengan --queries semua file dipakai untuk semua assignment. */
+    private static Map<Long, List<String>> loadQueries(Path dir, List<Assignment> assignments) throws IOException {
+        Map<Long, List<String>> queries = new LinkedHashMap<>();
+        if (dir != null) {
+            List<String> files = new ArrayList<>();
+            try (Stream<Path> entries = Files.list(dir)) {
+                for (Path path : entries.filter(p -> p.getFileName().toString().endsWith(".sql")).sorted().toList()) {
+                    files.add(Files.readString(path, StandardCharsets.UTF_8));
+                }
+            }
+            if (files.isEmpty()) throw new IOException("No .sql files in " + dir);
+            for (Assignment assignment : assignments) queries.put(assignment.id, files);
+            return queries;
+        }
+        for (Assignment assignment : assignments) {
+            Assignment details = AssignmentRepository.findById(assignment.id).join();
+            if (details != null && details.answerKey != null && !details.answerKey.isBlank()) {
+                queries.put(assignment.id, List.of(details.answerKey));
+            }
+        }
+        if (queries.isEmpty()) throw new IllegalStateException("No assignment has an answer key; use --queries");
+        return queries;
+    }
+
+    private static int simulate(Options options, List<String> usernames, List<Assignment> assignments,
+                                Map<Long, List<String>> queries, PrintStream out) throws IOException {
+        Map<String, Operation> operations = new LinkedHashMap<>();
+        for (String name : OPERATIONS) operations.put(name, new Operation(name));
+        List<Assignment> workable = assignments.stream().filter(a -> queries.containsKey(a.id)).toList();
+
+        QueryMetrics.reset();
+        out.printf("Simulating %d students for %d s (think time %d ms, %d tests per submit, %d grading workers)%n",
+                options.students, options.durationSeconds, options.thinkMillis, options.testsPerSubmit, options.workers);
+        long start = System.nanoTime();
+        long deadline = start + options.durationSeconds * 1_000_000_000L;
+        try (ExecutorService students = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String username : usernames) {
+                students.submit(() -> new Student(username, options, operations, workable, queries, deadline).run());
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        out.printf("%-8s %8s %7s %9s %9s %9s %9s %9s %11s %11s%n", "op", "count", "errors", "ops/s",
+                "p50 ms", "p95 ms", "p99 ms", "max ms", "wait p95", "wait mean");
+        boolean failed = false;
+        for (Operation op : operations.values()) {
+            out.printf(Locale.ROOT, "%-8s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f %11.1f %11.2f%n", op.name,
+                    op.latency.getCount(), op.errors.sum(), op.latency.getCount() / seconds,
+                    op.latency.getPercentileMillis(50), op.latency.getPercentileMillis(95),
+                    op.latency.getPercentileMillis(99), op.latency.getMaxMillis(),
+                    op.poolWait.getPercentileMillis(95), op.poolWait.getMeanMillis());
+            if (op.errors.sum() > 0) {
+                failed = true;
+                out.printf("  last %s error: %s%n", op.name, op.lastError);
+            }
+        }
+        for (Map.Entry<String, LatencyHistogram> entry : QueryMetrics.getPoolWait().entrySet()) {
+            LatencyHistogram wait = entry.getValue();
+            out.printf(Locale.ROOT, "Pool %s: %d checkouts, wait p50 %.2f ms, p95 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                    entry.getKey(), wait.getCount(), wait.getPercentileMillis(50), wait.getPercentileMillis(95),
+                    wait.getPercentileMillis(99), wait.getMaxMillis());
+        }
+        if (options.reportFile != null) writeReport(options.reportFile, operations.values(), seconds);
+        return failed ? 1 : 0;
+    }
+
+    private static void writeReport(Path file, Iterable<Operation> operations, double seconds) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("operation,count,errors,ops_per_second,p50_ms,p95_ms,p99_ms,max_ms,pool_wait_p95_ms,pool_wait_mean_ms");
+            writer.newLine();
+            for (Operation op : operations) {
+                writer.write(String.format(Locale.ROOT, "%s,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f", op.name,
+                        op.latency.getCount(), op.errors.sum(), op.latency.getCount() / seconds,
+                        op.latency.getPercentileMillis(50), op.latency.getPercentileMillis(95),
+                        op.latency.getPercentileMillis(99), op.latency.getMaxMillis(),
+                        op.poolWait.getPercentileMillis(95), op.poolWait.getMeanMillis()));
+                writer.newLine();
+            }
+        }
+    }
+
+    private static final class Options {
+        int students = 50;
+        int durationSeconds = 60;
+        int thinkMillis = 1000;
+        int testsPerSubmit = 2;
+        String prefix = "loadtest";
+        String password = "loadtest";
+        int workers = GradingWorkerPool.DEFAULT_WORKERS;
+        Path queriesDir;
+        Path reportFile;
+    }
+
+    private static final class Operation {
+        final String name;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LatencyHistogram poolWait = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+        volatile String lastError;
+
+        Operation(String name) {
+            this.name = name;
+        }
+    }
+
+    /** Satu mahasiswa; alurnya mengikuti tombol di UserController. */
+    private static final class Student {
+        private final String username;
+        private final Options options;
+        private final Map<String, Operation> operations;
+        private final List<Assignment> assignments;
+        private final Map<Long, List<String>> queries;
+        private final long deadline;
+
+        Student(String username, Options options, Map<String, Operation> operations, List<Assignment> assignments,
+                Map<Long, List<String>> queries, long deadline) {
+            this.username = username;
+            this.options = options;
+            this.operations = operations;
+            this.assignments = assignments;
+            this.queries = queries;
+            this.deadline = deadline;
+        }
+
+        void run() {
+            try {
+                // Mahasiswa tidak login bersamaan tepat di detik pertama
+                think();
+                Session session = measure("login", () -> {
+                    Session s = AuthService.login(username, options.password, "User").join();
+                    if (s == null) throw new IllegalStateException("Invalid credentials for " + username);
+                    return s;
+                });
+                if (session == null) return;
+
+                while (System.nanoTime() < deadline) {
+                    List<Assignment> catalog = measure("list", () -> AssignmentCatalog.list().join());
+                    if (catalog == null) {
+                        think();
+                        continue;
+                    }
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    Assignment assignment = assignments.get(random.nextInt(assignments.size()));
+                    List<String> candidates = queries.get(assignment.id);
+                    String query = candidates.get(random.nextInt(candidates.size()));
+
+                    measure("open", () -> AssignmentRepository.findInstructions(assignment.id).join());
+                    for (int i = 0; i < options.testsPerSubmit && System.nanoTime() < deadline; i++) {
+                        think();
+                        measure("test", () -> testQuery(query));
+                    }
+                    if (System.nanoTime() >= deadline) break;
+
+                    think();
+                    Long submissionId = measure("submit",
+                            () -> SubmissionRepository.submit(session.userId, assignment.id, query).join());
+                    if (submissionId != null) measure("grade", () -> waitForGrade(submissionId));
+                    think();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /** Seperti QueryResultWindow: buka cursor, ambil halaman pertama, lalu tutup. */
+        private int testQuery(String query) {
+            ResultCursor cursor = ResultCursor.open(
+                    () -> GradingDataSource.getConnection(QueryGovernor.ROLE_STUDENT), query).join();
+            try {
+                return cursor.fetch(ResultCursor.FETCH_SIZE).join().size();
+            } finally {
+                cursor.close();
+            }
+        }
+
+        /** Polling status dengan jeda yang sama seperti UserController.waitForGrade. */
+        private SubmissionStatus waitForGrade(long submissionId) throws InterruptedException {
+            long giveUp = deadline + GRADE_GRACE_MILLIS * 1_000_000L;
+            for (int attempt = 0; ; attempt++) {
+                Thread.sleep(Math.min(250L * (attempt + 1), 2000L));
+                SubmissionStatus status = SubmissionRepository.findStatus(submissionId).join();
+                if (status != null && status.isFailed()) {
+                    throw new IllegalStateException("Submission " + submissionId + " failed: " + status.error);
+                }
+                if (status != null && status.isDone()) return status;
+                if (System.nanoTime() > giveUp) {
+                    throw new IllegalStateException("Submission " + submissionId + " was not graded in time");
+                }
+            }
+        }
+
+        private void think() throws InterruptedException {
+            if (options.thinkMillis > 0) {
+                // 0.5x sampai 1.5x think time supaya permintaan tidak datang serempak
+                Thread.sleep(ThreadLocalRandom.current().nextLong(options.thinkMillis / 2, options.thinkMillis * 3L / 2 + 1));
+            }
+        }
+
+        /** Mencatat latensi dan waktu tunggu pool; null jika operasi gagal. */
+        private <T> T measure(String name, Callable<T> work) throws InterruptedException {
+            Operation op = operations.get(name);
+            LongAdder poolWait = new LongAdder();
+            QueryMetrics.setPoolWaitSink(poolWait);
+            long start = System.nanoTime();
+            try {
+                T result = work.call();
+                op.latency.recordNanos(System.nanoTime() - start);
+                return result;
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                op.errors.increment();
+                Throwable cause = DatabaseExecutor.unwrap(e);
+                op.lastError = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+                return null;
+            } finally {
+                QueryMetrics.setPoolWaitSink(null);
+                op.poolWait.recordNanos(poolWait.sum());
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.bdsqltester.datasources;
+
+import com.example.bdsqltester.dtos.Assignment;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Daftar assignment (id dan nama) yang di-cache di aplikasi. Setiap {@link #list()} hanya membaca
+ * satu angka versi dari assignment_catalog; daftar dimuat ulang hanya jika versinya berubah.
+ *
+ * Versi dibaca dari primary, bukan replica, supaya perubahan oleh admin langsung terlihat.
+ */
+public final class AssignmentCatalog {
+    public static final long POLL_INTERVAL_SECONDS = DataSourceConfig.getLong("catalog.pollIntervalSeconds", 30);
+
+    private static List<Assignment> assignments;
+    private static long version = Long.MIN_VALUE;
+
+    private AssignmentCatalog() {
+    }
+
+    /**
+     * Daftar assignment terbaru. Jika tidak ada perubahan sejak pemanggilan sebelumnya,
+     * instance List yang sama dikembalikan, jadi pemanggil bisa melewati pembaruan UI.
+     */
+    public static CompletableFuture<List<Assignment>> list() {
+        return DatabaseExecutor.supplyAsync(() -> {
+            try (Connection c = MainDataSource.getConnection()) {
+                long current = AssignmentRepository.findCatalogVersion(c);
+                synchronized (AssignmentCatalog.class) {
+                    if (current == version) return assignments;
+                }
+                // Versi dibaca sebelum daftar, jadi perubahan di antaranya terlihat lagi pada poll berikutnya
+                List<Assignment> loaded = List.copyOf(AssignmentRepository.findCatalog(c));
+                synchronized (AssignmentCatalog.class) {
+                    version = current;
+                    assignments = loaded;
+                }
+                return loaded;
+            }
+        });
+    }
+}
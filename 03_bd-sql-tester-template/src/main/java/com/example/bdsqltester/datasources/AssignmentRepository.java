@@ -0,0 +1,75 @@
+package com.example.bdsqltester.datasources;
+
+import com.example.bdsqltester.dtos.Assignment;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public final class AssignmentRepository {
+
+    private AssignmentRepository() {
+    }
+
+    /** Versi daftar assignment, dinaikkan trigger setiap kali tabel assignments berubah. */
+    static long findCatalogVersion(Connection c) throws SQLException {
+        try (Statement stmt = c.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version FROM assignment_catalog")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /** Hanya id dan nama; instruksi dan kunci jawaban diambil saat assignment dipilih. */
+    static List<Assignment> findCatalog(Connection c) throws SQLException {
+        List<Assignment> assignments = new ArrayList<>();
+        try (Statement stmt = c.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, name FROM assignments ORDER BY name")) {
+            while (rs.next()) {
+                assignments.add(new Assignment(rs.getLong("id"), rs.getString("name"), null, null));
+            }
+        }
+        return assignments;
+    }
+
+    /** Instruksi satu assignment untuk halaman mahasiswa, tanpa kunci jawaban. */
+    public static CompletableFuture<String> findInstructions(long assignmentId) {
+        return DatabaseExecutor.supplyAsync(() -> {
+            try (Connection c = MainDataSource.getConnection();
+                 PreparedStatement stmt = c.prepareStatement("SELECT instructions FROM assignments WHERE id = ?")) {
+                stmt.setLong(1, assignmentId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? rs.getString("instructions") : null;
+                }
+            }
+        });
+    }
+
+    /** Kunci jawaban untuk worker grading, atau null jika assignment sudah dihapus. */
+    public static String findAnswerKey(Connection c, long assignmentId) throws SQLException {
+        try (PreparedStatement stmt = c.prepareStatement("SELECT answer_key FROM assignments WHERE id = ?")) {
+            stmt.setLong(1, assignmentId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString("answer_key") : null;
+            }
+        }
+    }
+
+    /** Assignment lengkap dengan kunci jawaban untuk halaman admin, atau null jika sudah dihapus. */
+    public static CompletableFuture<Assignment> findById(long assignmentId) {
+        return DatabaseExecutor.supplyAsync(() -> {
+            try (Connection c = MainDataSource.getConnection();
+                 PreparedStatement stmt = c.prepareStatement(
+                         "SELECT id, name, instructions, answer_key FROM assignments WHERE id = ?")) {
+                stmt.setLong(1, assignmentId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? new Assignment(rs) : null;
+                }
+            }
+        });
+    }
+}
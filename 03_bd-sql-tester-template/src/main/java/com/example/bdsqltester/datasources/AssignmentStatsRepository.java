@@ -0,0 +1,81 @@
+package com.example.bdsqltester.datasources;
+
+import com.example.bdsqltester.dtos.AssignmentStatistics;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Membaca statistik per assignment dari assignment_stats dan user_role_counts, yang
+ * diperbarui trigger di database (lihat {@link Schema}). Jumlah baris yang dibaca
+ * sebanding dengan jumlah assignment, bukan jumlah nilai.
+ */
+public final class AssignmentStatsRepository {
+    private static final String SELECT_STATS =
+            "SELECT a.id, a.name, COALESCE(s.grade_sum, 0) AS grade_sum, " +
+                    "COALESCE(s.grade_count, 0) AS grade_count, s.histogram, " +
+                    "COALESCE(s.grade_sq_sum, 0) AS grade_sq_sum, s.grade_counts, " +
+                    "COALESCE((SELECT user_count FROM user_role_counts WHERE role = 'student'), 0) AS total_students " +
+                    "FROM assignments a LEFT JOIN assignment_stats s ON s.assignment_id = a.id ";
+
+    private AssignmentStatsRepository() {
+    }
+
+    public static CompletableFuture<List<AssignmentStatistics>> findAll() {
+        return DatabaseExecutor.supplyAsync(() -> {
+            List<AssignmentStatistics> stats = new ArrayList<>();
+            try (Connection c = MainDataSource.getReadConnection();
+                 PreparedStatement stmt = c.prepareStatement(SELECT_STATS + "ORDER BY a.name");
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    stats.add(read(rs));
+                }
+            }
+            return stats;
+        });
+    }
+
+    /** Statistik satu assignment, atau null jika assignment tidak ada. */
+    public static CompletableFuture<AssignmentStatistics> findByAssignment(long assignmentId) {
+        return DatabaseExecutor.supplyAsync(() -> {
+            try (Connection c = MainDataSource.getConnection();
+                 PreparedStatement stmt = c.prepareStatement(SELECT_STATS + "WHERE a.id = ?")) {
+                stmt.setLong(1, assignmentId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? read(rs) : null;
+                }
+            }
+        });
+    }
+
+    private static AssignmentStatistics read(ResultSet rs) throws SQLException {
+        return new AssignmentStatistics(
+                rs.getLong("id"),
+                rs.getString("name"),
+                rs.getDouble("grade_sum"),
+                rs.getLong("grade_count"),
+                rs.getLong("total_students"),
+                readCounts(rs, "histogram", AssignmentStatistics.BUCKETS),
+                rs.getDouble("grade_sq_sum"),
+                readCounts(rs, "grade_counts", AssignmentStatistics.GRADE_VALUES));
+    }
+
+    private static long[] readCounts(ResultSet rs, String column, int length) throws SQLException {
+        long[] counts = new long[length];
+        Array array = rs.getArray(column);
+        if (array != null) {
+            Long[] values = (Long[]) array.getArray();
+            for (int i = 0; i < counts.length && i < values.length; i++) {
+                counts[i] = values[i] != null ? values[i] : 0;
+            }
+            array.free();
+        }
+        return counts;
+    }
+}
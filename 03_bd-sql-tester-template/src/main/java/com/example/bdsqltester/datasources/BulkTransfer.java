@@ -0,0 +1,275 @@
+package com.example.bdsqltester.datasources;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.UnaryOperator;
+
+/**
+ * Import daftar user dan export nilai dalam format CSV lewat COPY PostgreSQL.
+ *
+ * File dibaca dan ditulis secara streaming, jadi memori yang dipakai tetap berapa pun
+ * jumlah barisnya. User diimpor ke tabel sementara dulu, password di-hash di aplikasi
+ * per batch, lalu hanya username yang belum ada yang dimasukkan ke users dalam satu transaksi.
+ */
+public final class BulkTransfer {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Progress dilaporkan setiap kali sejumlah byte ini lewat
+    private static final long PROGRESS_STEP_BYTES = 256 * 1024;
+    // Password yang di-hash bersamaan (paralel) sebelum ditulis dengan satu batch insert
+    private static final int HASH_BATCH_ROWS = 256;
+
+    public static final String USERS_HEADER = "username,password,role";
+
+    private static final String EXPORT_GRADES_SQL =
+            "SELECT u.username, g.assignment_id, a.name AS assignment, g.grade " +
+                    "FROM grades g JOIN users u ON g.user_id = u.id " +
+                    "JOIN assignments a ON g.assignment_id = a.id ";
+
+    public interface ProgressListener {
+        /** totalBytes -1 jika ukuran akhir belum diketahui (export). */
+        void onProgress(long bytes, long totalBytes);
+    }
+
+    public static class ImportResult {
+        public final long rows;
+        public final long inserted;
+        public final long elapsedMillis;
+
+        ImportResult(long rows, long inserted, long elapsedMillis) {
+            this.rows = rows;
+            this.inserted = inserted;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        /** Baris yang dilewati karena username sudah ada, duplikat di file, password kosong, atau role tidak valid. */
+        public long getSkipped() {
+            return rows - inserted;
+        }
+    }
+
+    public static class ExportResult {
+        public final long rows;
+        public final long bytes;
+        public final long elapsedMillis;
+
+        ExportResult(long rows, long bytes, long elapsedMillis) {
+            this.rows = rows;
+            this.bytes = bytes;
+            this.elapsedMillis = elapsedMillis;
+        }
+    }
+
+    private BulkTransfer() {
+    }
+
+    /**
+     * Mengimpor CSV dengan header {@value #USERS_HEADER}. Role kosong dianggap student;
+     * username yang sudah ada tidak diubah. Setiap password disimpan sebagai passwordHasher(password),
+     * tidak pernah apa adanya.
+     */
+    public static CompletableFuture<ImportResult> importUsers(Path csv, UnaryOperator<String> passwordHasher,
+                                                              ProgressListener listener) {
+        return DatabaseExecutor.supplyAsync(() -> {
+            try {
+                return copyUsersIn(csv, passwordHasher, listener);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /** Mengekspor nilai (username, assignment_id, assignment, grade); assignmentId null = semua assignment. */
+    public static CompletableFuture<ExportResult> exportGrades(Path csv, Long assignmentId, ProgressListener listener) {
+        return DatabaseExecutor.supplyAsync(() -> {
+            try {
+                return copyGradesOut(csv, assignmentId, listener);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static ImportResult copyUsersIn(Path csv, UnaryOperator<String> passwordHasher, ProgressListener listener)
+            throws SQLException, IOException {
+        long start = System.nanoTime();
+        long totalBytes = Files.size(csv);
+        try (Connection c = MainDataSource.getConnection()) {
+            c.setAutoCommit(false);
+            try {
+                try (Statement stmt = c.createStatement()) {
+                    stmt.execute("CREATE TEMP TABLE users_import (username TEXT, password TEXT, role TEXT) ON COMMIT DROP");
+                    stmt.execute("CREATE TEMP TABLE users_hashed (username TEXT, password TEXT, role TEXT) ON COMMIT DROP");
+                }
+                CopyManager copy = c.unwrap(PGConnection.class).getCopyAPI();
+                long rows;
+                try (InputStream in = new ProgressInputStream(
+                        new BufferedInputStream(Files.newInputStream(csv), BUFFER_SIZE), totalBytes, listener)) {
+                    rows = copy.copyIn("COPY users_import (username, password, role) FROM STDIN " +
+                            "WITH (FORMAT csv, HEADER true)", in, BUFFER_SIZE);
+                }
+
+                hashPasswords(c, passwordHasher);
+
+                long inserted;
+                try (Statement stmt = c.createStatement()) {
+                    // Mencegah username yang sama disisipkan bersamaan oleh transaksi lain
+                    stmt.execute("LOCK TABLE users IN SHARE ROW EXCLUSIVE MODE");
+                    inserted = stmt.executeUpdate("INSERT INTO users (username, password, role) " +
+                            "SELECT username, password, role FROM users_hashed h " +
+                            "WHERE NOT EXISTS (SELECT 1 FROM users u WHERE u.username = h.username) " +
+                            "ORDER BY username");
+                }
+                c.commit();
+                listener.onProgress(totalBytes, totalBytes);
+                return new ImportResult(rows, inserted, (System.nanoTime() - start) / 1_000_000);
+            } catch (SQLException | IOException | RuntimeException e) {
+                c.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Menyalin baris yang valid dari users_import ke users_hashed dengan password yang sudah di-hash.
+     * Hash (PBKDF2) dihitung paralel per batch, sebelum users dikunci.
+     */
+    private static void hashPasswords(Connection c, UnaryOperator<String> passwordHasher) throws SQLException {
+        String select = "SELECT DISTINCT ON (username) username, password, role FROM (" +
+                "SELECT trim(username) AS username, password, " +
+                "coalesce(nullif(lower(trim(role)), ''), 'student') AS role FROM users_import) s " +
+                "WHERE username <> '' AND password <> '' AND role IN ('student', 'user', 'admin') " +
+                "AND NOT EXISTS (SELECT 1 FROM users u WHERE u.username = s.username) " +
+                "ORDER BY username";
+        try (Statement stmt = c.createStatement();
+             PreparedStatement insert = c.prepareStatement(
+                     "INSERT INTO users_hashed (username, password, role) VALUES (?, ?, ?)")) {
+            stmt.setFetchSize(HASH_BATCH_ROWS);
+            try (ResultSet rs = stmt.executeQuery(select)) {
+                List<String[]> batch = new ArrayList<>(HASH_BATCH_ROWS);
+                boolean more = true;
+                while (more) {
+                    more = rs.next();
+                    if (more) batch.add(new String[]{rs.getString(1), rs.getString(2), rs.getString(3)});
+                    if (batch.size() == HASH_BATCH_ROWS || (!more && !batch.isEmpty())) {
+                        batch.parallelStream().forEach(row -> row[1] = passwordHasher.apply(row[1]));
+                        for (String[] row : batch) {
+                            insert.setString(1, row[0]);
+                            insert.setString(2, row[1]);
+                            insert.setString(3, row[2]);
+                            insert.addBatch();
+                        }
+                        insert.executeBatch();
+                        batch.clear();
+                    }
+                }
+            }
+        }
+    }
+
+    private static ExportResult copyGradesOut(Path csv, Long assignmentId, ProgressListener listener)
+            throws SQLException, IOException {
+        long start = System.nanoTime();
+        String query = EXPORT_GRADES_SQL
+                + (assignmentId != null ? "WHERE g.assignment_id = " + assignmentId + " " : "")
+                + "ORDER BY g.assignment_id, u.username";
+        // Export hanya membaca, jadi boleh dari replica
+        try (Connection c = MainDataSource.getReadConnection();
+             ProgressOutputStream out = new ProgressOutputStream(
+                     new BufferedOutputStream(Files.newOutputStream(csv), BUFFER_SIZE), listener)) {
+            CopyManager copy = c.unwrap(PGConnection.class).getCopyAPI();
+            long rows = copy.copyOut("COPY (" + query + ") TO STDOUT WITH (FORMAT csv, HEADER true)", out);
+            out.flush();
+            listener.onProgress(out.bytes, out.bytes);
+            return new ExportResult(rows, out.bytes, (System.nanoTime() - start) / 1_000_000);
+        } catch (SQLException | IOException | RuntimeException e) {
+            // Jangan tinggalkan file setengah jadi
+            Files.deleteIfExists(csv);
+            throw e;
+        }
+    }
+
+    private static final class ProgressInputStream extends FilterInputStream {
+        private final long totalBytes;
+        private final ProgressListener listener;
+        private long bytes;
+        private long nextReport = PROGRESS_STEP_BYTES;
+
+        ProgressInputStream(InputStream in, long totalBytes, ProgressListener listener) {
+            super(in);
+            this.totalBytes = totalBytes;
+            this.listener = listener;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) advance(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) advance(read);
+            return read;
+        }
+
+        private void advance(int count) {
+            bytes += count;
+            if (bytes >= nextReport) {
+                nextReport = bytes + PROGRESS_STEP_BYTES;
+                listener.onProgress(bytes, totalBytes);
+            }
+        }
+    }
+
+    private static final class ProgressOutputStream extends FilterOutputStream {
+        private final ProgressListener listener;
+        private long bytes;
+        private long nextReport = PROGRESS_STEP_BYTES;
+
+        ProgressOutputStream(OutputStream out, ProgressListener listener) {
+            super(out);
+            this.listener = listener;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            advance(1);
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            out.write(buffer, offset, length);
+            advance(length);
+        }
+
+        private void advance(int count) {
+            bytes += count;
+            if (bytes >= nextReport) {
+                nextReport = bytes + PROGRESS_STEP_BYTES;
+                listener.onProgress(bytes, -1);
+            }
+        }
+    }
+}
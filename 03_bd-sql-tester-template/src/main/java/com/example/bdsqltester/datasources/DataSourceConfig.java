@@ -0,0 +1,102 @@
+package com.example.bdsqltester.datasources;
+
+import com.zaxxer.hikari.HikariConfig;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Membaca konfigurasi database dari database.properties, file eksternal,
+ * system property dan environment variable (lihat komentar di database.properties).
+ */
+public final class DataSourceConfig {
+    private static final String DEFAULTS_RESOURCE = "/com/example/bdsqltester/database.properties";
+    private static final String EXTERNAL_FILE_PROPERTY = "bdsqltester.config";
+    private static final String ENV_PREFIX = "BDSQL_";
+    private static final String DATA_SOURCE_PREFIX = "dataSource.";
+
+    private static final Properties properties = load();
+
+    private DataSourceConfig() {
+    }
+
+    /** Membuat HikariConfig dari semua key dengan prefix tertentu, misalnya "main" atau "grading". */
+    public static HikariConfig createHikariConfig(String prefix) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(prefix);
+        config.setJdbcUrl(getString(prefix + ".jdbcUrl", null));
+        config.setUsername(getString(prefix + ".username", null));
+        config.setPassword(getString(prefix + ".password", null));
+        config.setMaximumPoolSize(getInt(prefix + ".maximumPoolSize", 10));
+        config.setMinimumIdle(getInt(prefix + ".minimumIdle", config.getMaximumPoolSize()));
+        config.setConnectionTimeout(getLong(prefix + ".connectionTimeout", 30_000));
+        config.setIdleTimeout(getLong(prefix + ".idleTimeout", 600_000));
+        config.setMaxLifetime(getLong(prefix + ".maxLifetime", 1_800_000));
+        config.setLeakDetectionThreshold(getLong(prefix + ".leakDetectionThreshold", 0));
+
+        String dataSourcePrefix = prefix + "." + DATA_SOURCE_PREFIX;
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(dataSourcePrefix)) {
+                config.addDataSourceProperty(key.substring(dataSourcePrefix.length()), getString(key, null));
+            }
+        }
+
+        config.setMetricsTrackerFactory(PoolMetrics.FACTORY);
+        return config;
+    }
+
+    public static String getString(String key, String defaultValue) {
+        String env = System.getenv(toEnvName(key));
+        if (env != null) return env;
+        String value = System.getProperty(key, properties.getProperty(key));
+        return value != null ? value.trim() : defaultValue;
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = getString(key, null);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = getString(key, null);
+        return value != null ? Long.parseLong(value) : defaultValue;
+    }
+
+    /** main.maximumPoolSize -> BDSQL_MAIN_MAXIMUM_POOL_SIZE */
+    static String toEnvName(String key) {
+        StringBuilder name = new StringBuilder(ENV_PREFIX);
+        for (int i = 0; i < key.length(); i++) {
+            char ch = key.charAt(i);
+            if (ch == '.') {
+                name.append('_');
+            } else if (Character.isUpperCase(ch)) {
+                name.append('_').append(ch);
+            } else {
+                name.append(Character.toUpperCase(ch));
+            }
+        }
+        return name.toString();
+    }
+
+    private static Properties load() {
+        Properties props = new Properties();
+        try (InputStream in = DataSourceConfig.class.getResourceAsStream(DEFAULTS_RESOURCE)) {
+            if (in != null) props.load(in);
+
+            String external = System.getProperty(EXTERNAL_FILE_PROPERTY);
+            Path externalPath = external != null ? Path.of(external) : Path.of("database.properties");
+            if (Files.isRegularFile(externalPath)) {
+                try (InputStream ext = Files.newInputStream(externalPath)) {
+                    props.load(ext);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load database configuration", e);
+        }
+        return props;
+    }
+}
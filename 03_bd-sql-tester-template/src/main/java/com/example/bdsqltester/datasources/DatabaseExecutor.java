@@ -0,0 +1,85 @@
+package com.example.bdsqltester.datasources;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Menjalankan pekerjaan JDBC di luar JavaFX Application Thread.
+ *
+ * Jumlah thread dibatasi supaya tidak melebihi jumlah koneksi pool;
+ * hasil dikembalikan ke UI lewat {@link #onFxThread}. Dengan executor.virtualThreads=true
+ * setiap pekerjaan mendapat virtual thread sendiri dan batasnya hanya ukuran pool
+ * (dipakai LoadTest, yang mensimulasikan banyak mahasiswa dalam satu proses).
+ */
+public final class DatabaseExecutor {
+    public static final int THREAD_COUNT = 4;
+
+    private static final AtomicInteger threadNumber = new AtomicInteger(1);
+    private static final ExecutorService executor = createExecutor();
+
+    private DatabaseExecutor() {
+    }
+
+    public static <T> CompletableFuture<T> supplyAsync(SqlSupplier<T> work) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return work.get();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    private static ExecutorService createExecutor() {
+        if (Boolean.parseBoolean(DataSourceConfig.getString("executor.virtualThreads", "false"))) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("db-worker-", 1).factory());
+        }
+        return new ThreadPoolExecutor(
+                THREAD_COUNT, THREAD_COUNT, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "db-worker-" + threadNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    static Executor executor() {
+        return executor;
+    }
+
+    /**
+     * Memanggil onSuccess atau onError di JavaFX Application Thread setelah future selesai.
+     * Future yang dibatalkan tidak memanggil keduanya.
+     */
+    public static <T> void onFxThread(CompletableFuture<T> future, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        future.whenComplete((result, error) -> Platform.runLater(() -> {
+            if (error == null) {
+                onSuccess.accept(result);
+                return;
+            }
+            Throwable cause = unwrap(error);
+            if (!(cause instanceof CancellationException)) {
+                onError.accept(cause);
+            }
+        }));
+    }
+
+    public static Throwable unwrap(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
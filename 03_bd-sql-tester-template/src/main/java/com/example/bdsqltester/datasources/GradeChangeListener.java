@@ -0,0 +1,165 @@
+package com.example.bdsqltester.datasources;
+
+import javafx.application.Platform;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Menerima NOTIFY grades_changed (dikirim trigger grades_notify, lihat {@link Schema}) dan
+ * meneruskannya ke jendela admin yang sedang terbuka.
+ *
+ * Satu thread memegang satu koneksi MainDataSource selama ada subscriber; perubahan
+ * dikirim per batch di JavaFX Application Thread. Jika koneksi terputus, thread
+ * menyambung ulang dan memanggil onResync karena notifikasi selama terputus hilang.
+ */
+public final class GradeChangeListener {
+    public static final String CHANNEL = "grades_changed";
+
+    private static final int POLL_MILLIS = 500;
+    private static final long RECONNECT_BACKOFF_MILLIS = 5000;
+    private static final Logger log = LoggerFactory.getLogger(GradeChangeListener.class);
+
+    private static final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private static Thread thread;
+
+    private GradeChangeListener() {
+    }
+
+    /** Subscription aktif sampai {@link Subscription#close()} dipanggil, biasanya saat jendela ditutup. */
+    public static Subscription subscribe(Consumer<List<GradeChange>> onChanges, Runnable onResync) {
+        Subscriber subscriber = new Subscriber(onChanges, onResync);
+        synchronized (GradeChangeListener.class) {
+            subscribers.add(subscriber);
+            if (thread == null) {
+                thread = new Thread(GradeChangeListener::listenLoop, "grade-change-listener");
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+        return () -> subscribers.remove(subscriber);
+    }
+
+    private static void listenLoop() {
+        boolean reconnecting = false;
+        while (true) {
+            synchronized (GradeChangeListener.class) {
+                if (subscribers.isEmpty()) {
+                    thread = null;
+                    return;
+                }
+            }
+            try (Connection c = MainDataSource.getConnection()) {
+                try (Statement stmt = c.createStatement()) {
+                    stmt.execute("LISTEN " + CHANNEL);
+                }
+                if (reconnecting) {
+                    for (Subscriber subscriber : subscribers) {
+                        Platform.runLater(subscriber.onResync);
+                    }
+                }
+                reconnecting = false;
+                poll(c.unwrap(PGConnection.class));
+                try (Statement stmt = c.createStatement()) {
+                    stmt.execute("UNLISTEN " + CHANNEL);
+                }
+            } catch (SQLException e) {
+                reconnecting = true;
+                log.warn("Grade change listener failed, reconnecting in {} ms: {}", RECONNECT_BACKOFF_MILLIS, e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_BACKOFF_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    synchronized (GradeChangeListener.class) {
+                        thread = null;
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Menunggu notifikasi sampai tidak ada subscriber lagi. */
+    private static void poll(PGConnection pg) throws SQLException {
+        while (!subscribers.isEmpty()) {
+            PGNotification[] notifications = pg.getNotifications(POLL_MILLIS);
+            if (notifications == null || notifications.length == 0) continue;
+
+            List<GradeChange> changes = new ArrayList<>(notifications.length);
+            for (PGNotification notification : notifications) {
+                GradeChange change = GradeChange.parse(notification.getParameter());
+                if (change != null) changes.add(change);
+            }
+            if (changes.isEmpty()) continue;
+            for (Subscriber subscriber : subscribers) {
+                Platform.runLater(() -> subscriber.onChanges.accept(changes));
+            }
+        }
+    }
+
+    public interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static class Subscriber {
+        final Consumer<List<GradeChange>> onChanges;
+        final Runnable onResync;
+
+        Subscriber(Consumer<List<GradeChange>> onChanges, Runnable onResync) {
+            this.onChanges = onChanges;
+            this.onResync = onResync;
+        }
+    }
+
+    /** Satu baris grades yang berubah. oldGrade null untuk INSERT, newGrade null untuk DELETE. */
+    public static class GradeChange {
+        public final String operation;
+        public final long assignmentId;
+        public final long userId;
+        public final Double oldGrade;
+        public final Double newGrade;
+        public final String username;
+
+        GradeChange(String operation, long assignmentId, long userId, Double oldGrade, Double newGrade, String username) {
+            this.operation = operation;
+            this.assignmentId = assignmentId;
+            this.userId = userId;
+            this.oldGrade = oldGrade;
+            this.newGrade = newGrade;
+            this.username = username;
+        }
+
+        public boolean isDelete() {
+            return "DELETE".equals(operation);
+        }
+
+        /** Format payload: operasi,assignment_id,user_id,nilai_lama,nilai_baru,username */
+        static GradeChange parse(String payload) {
+            String[] fields = payload.split(",", 6);
+            if (fields.length < 6) {
+                log.warn("Ignoring malformed {} payload: {}", CHANNEL, payload);
+                return null;
+            }
+            try {
+                return new GradeChange(fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2]),
+                        parseGrade(fields[3]), parseGrade(fields[4]), fields[5].isEmpty() ? null : fields[5]);
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring malformed {} payload: {}", CHANNEL, payload);
+                return null;
+            }
+        }
+
+        private static Double parseGrade(String value) {
+            return value.isEmpty() ? null : Double.valueOf(value);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.bdsqltester.datasources;
+
+import com.example.bdsqltester.dtos.Assignment;
+import com.example.bdsqltester.dtos.Grade;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public final class GradeRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private GradeRepository() {
+    }
+
+    /** Urutan tabel nilai; setiap urutan diakhiri kolom unik supaya bisa dipakai sebagai keyset. */
+    public enum GradeSort {
+        USER_ID("g.user_id"),
+        USERNAME("u.username", "g.user_id"),
+        GRADE("coalesce(g.grade, 0)", "u.username", "g.user_id");
+
+        private final String[] columns;
+
+        GradeSort(String... columns) {
+            this.columns = columns;
+        }
+    }
+
+    /**
+     * Satu halaman nilai untuk assignment, diurutkan di database. after adalah baris terakhir
+     * halaman sebelumnya (null untuk halaman pertama); filter mencocokkan sebagian username.
+     */
+    public static CompletableFuture<List<Grade>> findPage(long assignmentId, String filter, GradeSort sort,
+                                                          boolean descending, Grade after, int limit) {
+        return DatabaseExecutor.supplyAsync(() -> {
+            List<Grade> grades = new ArrayList<>();
+            StringBuilder sql = new StringBuilder("SELECT g.user_id, u.username, coalesce(g.grade, 0) AS grade " +
+                    "FROM grades g JOIN users u ON g.user_id = u.id " +
+                    "WHERE g.assignment_id = ?");
+            boolean filtered = filter != null && !filter.isBlank();
+            if (filtered) sql.append(" AND u.username ILIKE ?");
+            if (after != null) sql.append(Keyset.after(sort.columns, descending));
+            sql.append(Keyset.orderBy(sort.columns, descending)).append(" LIMIT ?");
+
+            try (Connection c = MainDataSource.getConnection();
+                 PreparedStatement stmt = c.prepareStatement(sql.toString())) {
+                int index = 1;
+                stmt.setLong(index++, assignmentId);
+                if (filtered) stmt.setString(index++, Keyset.containsPattern(filter.trim()));
+                if (after != null) {
+                    if (sort == GradeSort.GRADE) stmt.setDouble(index++, after.getScore());
+                    if (sort != GradeSort.USER_ID) stmt.setString(index++, after.getUsername());
+                    stmt.setLong(index++, after.getUserId());
+                }
+                stmt.setInt(index, limit);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Grade grade = new Grade();
+                        grade.setUserId(rs.getLong("user_id"));
+                        grade.setScore(rs.getDouble("grade"));
+                        grade.setUsername(rs.getString("username"));
+                        grade.setAssignmentId(assignmentId);
+                        grades.add(grade);
+                    }
+                }
+            }
+            return grades;
+        });
+    }
+
+    /** Nilai terbaik user untuk satu assignment, atau null jika belum pernah submit. */
+    public static CompletableFuture<Double> findGrade(long userId, long assignmentId) {
+        return DatabaseExecutor.supplyAsync(() -> {
+            String sql = "SELECT grade FROM grades WHERE user_id = ? AND assignment_id = ?";
+            try (Connection c = MainDataSource.getConnection();
+                 PreparedStatement stmt = c.prepareStatement(sql)) {
+                stmt.setLong(1, userId);
+                stmt.setLong(2, assignmentId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? rs.getDouble("grade") : null;
+                }
+            }
+        });
+    }
+
+    /** Semua assignment yang sudah dinilai untuk user, dengan {@link Assignment#grade} terisi. */
+    public static CompletableFuture<List<Assignment>> findGradedAssignments(long userId) {
+        return DatabaseExecutor.supplyAsync(() -> {
+            List<Assignment> assignments = new ArrayList<>();
+            String sql = "SELECT a.id, a.name, g.grade FROM grades g " +
+                    "JOIN assignments a ON g.assignment_id = a.id " +
+                    "WHERE g.user_id = ?";
+            try (Connection c = MainDataSource.getReadConnection();
+                 PreparedStatement stmt = c.prepareStatement(sql)) {
+                stmt.setLong(1, userId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Assignment assignment = new Assignment(rs.getLong("id"), rs.getString("name"), null, null);
+                        assignment.setGrade(new Grade(userId, assignment.id, rs.getDouble("grade")));
+                        assignments.add(assignment);
+                    }
+                }
+            }
+            return assignments;
+        });
+    }
+
+    /** Menyimpan nilai hanya jika lebih tinggi dari nilai yang sudah ada. */
+    public static void saveBestGrade(Connection c, long userId, long assignmentId, int grade) throws SQLException {
+        String query = "INSERT INTO grades (user_id, assignment_id, grade) " +
+                "VALUES (?, ?, ?) " +
+                "ON CONFLICT (user_id, assignment_id) DO UPDATE SET " +
+                "grade = CASE WHEN EXCLUDED.grade > grades.grade THEN EXCLUDED.grade ELSE grades.grade END";
+        try (PreparedStatement stmt = c.prepareStatement(query)) {
+            stmt.setLong(1, userId);
+            stmt.setLong(2, assignmentId);
+            stmt.setInt(3, grade);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Menimpa nilai beberapa user sekaligus dengan batch upsert (dipakai saat re-grade,
+     * ketika nilai lama tidak lagi berlaku karena kunci jawaban berubah).
+     *
+     * Baris nilai assignment dikunci selama penulisan, dan nilai submission yang dinilai worker
+     * setelah snapshot re-grade (id &gt; afterSubmissionId) tetap dihitung, supaya penulisan ini
+     * tidak menimpa nilai yang baru saja disimpan {@link #saveBestGrade}.
+     */
+    public static void replaceGrades(Connection c, long assignmentId, Map<Long, Integer> gradesByUser,
+                                     long afterSubmissionId) throws SQLException {
+        String lock = "SELECT user_id FROM grades WHERE assignment_id = ? FOR UPDATE";
+        String query = "INSERT INTO grades (user_id, assignment_id, grade) " +
+                "VALUES (?, ?, GREATEST(?, (SELECT max(s.grade) FROM submissions s " +
+                "WHERE s.user_id = ? AND s.assignment_id = ? AND s.id > ? AND s.status = 'DONE'))) " +
+                "ON CONFLICT (user_id, assignment_id) DO UPDATE SET grade = EXCLUDED.grade";
+        boolean autoCommit = c.getAutoCommit();
+        c.setAutoCommit(false);
+        try (PreparedStatement lockStmt = c.prepareStatement(lock);
+             PreparedStatement stmt = c.prepareStatement(query)) {
+            lockStmt.setLong(1, assignmentId);
+            lockStmt.executeQuery().close();
+
+            int batched = 0;
+            for (Map.Entry<Long, Integer> entry : gradesByUser.entrySet()) {
+                stmt.setLong(1, entry.getKey());
+                stmt.setLong(2, assignmentId);
+                stmt.setInt(3, entry.getValue());
+                stmt.setLong(4, entry.getKey());
+                stmt.setLong(5, assignmentId);
+                stmt.setLong(6, afterSubmissionId);
+                stmt.addBatch();
+                if (++batched % BATCH_SIZE == 0) {
+                    stmt.executeBatch();
+                }
+            }
+            stmt.executeBatch();
+            c.commit();
+        } catch (SQLException e) {
+            c.rollback();
+            throw e;
+        } finally {
+            c.setAutoCommit(autoCommit);
+        }
+    }
+}
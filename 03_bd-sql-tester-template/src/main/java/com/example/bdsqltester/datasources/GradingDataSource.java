@@ -1,28 +1,167 @@
 package com.example.bdsqltester.datasources;
 
-import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class GradingDataSource {
+    /** Dataset utama, yaitu database dari key "grading.*". */
+    public static final String DEFAULT_DATASET = "default";
 
-    private static HikariConfig config = new HikariConfig();
-    private static HikariDataSource ds;
+    private static final Logger log = LoggerFactory.getLogger(GradingDataSource.class);
 
-    static {
-        config.setJdbcUrl("jdbc:postgresql://localhost:5432/oracle_hr");
-        config.setUsername("readonly_grader");
-        config.setPassword("readonly_grader");
-        config.addDataSourceProperty("cachePrepStmts", "true");
-        config.addDataSourceProperty("prepStmtCacheSize", "250");
-        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
-        ds = new HikariDataSource(config);
+    private static volatile HikariDataSource ds;
+
+    private static final Map<String, Dataset> datasets = loadDatasets();
+    private static final List<String> datasetNames = loadDatasetNames();
+    // True jika ada dataset yang memakai pool utama dengan search_path lain, sehingga
+    // search_path harus diatur ulang setiap kali koneksi pool utama dipinjam
+    private static final boolean sharedSearchPath = datasets.values().stream()
+            .anyMatch(dataset -> dataset.prefix == null && dataset.searchPath != null);
+
+    /** Pool grading baru dibuat saat pertama kali ada query yang perlu dinilai atau di-test. */
+    private static HikariDataSource dataSource() {
+        HikariDataSource current = ds;
+        if (current != null) return current;
+        synchronized (GradingDataSource.class) {
+            if (ds == null) {
+                long start = System.nanoTime();
+                // Pengaturan koneksi dan pool dibaca dari database.properties (key "grading.*")
+                ds = new HikariDataSource(DataSourceConfig.createHikariConfig("grading"));
+                log.info("Grading pool initialized in {} ms", (System.nanoTime() - start) / 1_000_000);
+            }
+            return ds;
+        }
     }
 
+    /** Koneksi untuk menjalankan query mahasiswa, dengan batas {@link QueryGovernor#ROLE_STUDENT}. */
     public static Connection getConnection() throws SQLException {
-        return ds.getConnection();
+        return getConnection(QueryGovernor.ROLE_STUDENT);
+    }
+
+    public static Connection getConnection(String role) throws SQLException {
+        return getConnection(DEFAULT_DATASET, role);
+    }
+
+    /** Koneksi ke salah satu dataset dari {@link #getDatasetNames()}. */
+    public static Connection getConnection(String dataset, String role) throws SQLException {
+        Dataset target = null;
+        if (!DEFAULT_DATASET.equals(dataset)) {
+            target = datasets.get(dataset);
+            if (target == null) throw new SQLException("Unknown grading dataset: " + dataset);
+        }
+        boolean ownPool = target != null && target.prefix != null;
+        HikariDataSource pool = ownPool ? target.dataSource() : dataSource();
+        String poolLabel = target == null ? "grading" : "grading:" + target.name;
+
+        long waitStart = System.nanoTime();
+        Connection conn = pool.getConnection();
+        QueryMetrics.recordPoolWait(poolLabel, System.nanoTime() - waitStart);
+        try {
+            String searchPath = target != null ? target.searchPath : null;
+            if (searchPath != null) {
+                try (PreparedStatement stmt = conn.prepareStatement("SELECT set_config('search_path', ?, false)")) {
+                    stmt.setString(1, searchPath);
+                    stmt.execute();
+                }
+            } else if (!ownPool && sharedSearchPath) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("RESET search_path");
+                }
+            }
+            return QueryMetrics.instrument(QueryGovernor.govern(conn, role), poolLabel);
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+    }
+
+    /** {@link #DEFAULT_DATASET} diikuti dataset dari grading.datasets, sesuai urutan di konfigurasi. */
+    public static List<String> getDatasetNames() {
+        return datasetNames;
+    }
+
+    public static int getMaximumPoolSize() {
+        return dataSource().getMaximumPoolSize();
+    }
+
+    public static void close() {
+        HikariDataSource current = ds;
+        if (current != null) current.close();
+        for (Dataset dataset : datasets.values()) {
+            dataset.close();
+        }
+    }
+
+    /**
+     * grading.datasets=hr_v1,hr_v2 dengan, untuk setiap nama:
+     * grading.dataset.&lt;nama&gt;.searchPath (skema lain di database grading) dan/atau
+     * grading.dataset.&lt;nama&gt;.jdbcUrl (database lain, dengan pool sendiri).
+     */
+    private static Map<String, Dataset> loadDatasets() {
+        Map<String, Dataset> result = new LinkedHashMap<>();
+        for (String name : DataSourceConfig.getString("grading.datasets", "").split(",")) {
+            name = name.trim();
+            if (name.isEmpty() || name.equals(DEFAULT_DATASET)) continue;
+            String prefix = "grading.dataset." + name;
+            String searchPath = DataSourceConfig.getString(prefix + ".searchPath", null);
+            boolean ownDatabase = DataSourceConfig.getString(prefix + ".jdbcUrl", null) != null;
+            if (searchPath == null && !ownDatabase) {
+                log.warn("Grading dataset {} has neither searchPath nor jdbcUrl, ignored", name);
+                continue;
+            }
+            result.put(name, new Dataset(name, ownDatabase ? prefix : null, searchPath));
+        }
+        return result;
+    }
+
+    private static List<String> loadDatasetNames() {
+        List<String> names = new ArrayList<>();
+        names.add(DEFAULT_DATASET);
+        names.addAll(datasets.keySet());
+        return Collections.unmodifiableList(names);
+    }
+
+    private static final class Dataset {
+        final String name;
+        // Prefix konfigurasi pool sendiri, null jika memakai pool utama
+        final String prefix;
+        final String searchPath;
+        private volatile HikariDataSource pool;
+
+        Dataset(String name, String prefix, String searchPath) {
+            this.name = name;
+            this.prefix = prefix;
+            this.searchPath = searchPath;
+        }
+
+        HikariDataSource dataSource() {
+            HikariDataSource current = pool;
+            if (current != null) return current;
+            synchronized (this) {
+                if (pool == null) {
+                    long start = System.nanoTime();
+                    pool = new HikariDataSource(DataSourceConfig.createHikariConfig(prefix));
+                    log.info("Grading dataset pool {} initialized in {} ms", name, (System.nanoTime() - start) / 1_000_000);
+                }
+                return pool;
+            }
+        }
+
+        void close() {
+            HikariDataSource current = pool;
+            if (current != null) current.close();
+        }
     }
 
     private GradingDataSource() {
@@ -0,0 +1,186 @@
+package com.example.bdsqltester.datasources;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Proxy Connection/Statement/ResultSet untuk {@link QueryMetrics}. Latensi satu query
+ * adalah waktu execute ditambah waktu semua rs.next() (pengambilan baris dengan cursor),
+ * dicatat saat ResultSet atau Statement ditutup.
+ */
+final class InstrumentedConnection {
+
+    private InstrumentedConnection() {
+    }
+
+    static Connection wrap(Connection conn, String pool) {
+        return (Connection) Proxy.newProxyInstance(InstrumentedConnection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    Object result = invoke(conn, method, args);
+                    if (!(result instanceof Statement stmt)) return result;
+
+                    Class<?> type = result instanceof CallableStatement ? CallableStatement.class
+                            : result instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+                    String preparedSql = args != null && args.length > 0 && args[0] instanceof String sql ? sql : null;
+                    return Proxy.newProxyInstance(InstrumentedConnection.class.getClassLoader(), new Class<?>[]{type},
+                            new StatementHandler(stmt, pool, preparedSql));
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /** Satu eksekusi query; dicatat sekali ke QueryMetrics saat selesai. */
+    private static class Execution {
+        final String pool;
+        final String sql;
+        final AtomicBoolean finished = new AtomicBoolean();
+        volatile long nanos;
+        volatile long rows;
+        volatile long bytes;
+        volatile boolean error;
+
+        Execution(String pool, String sql, long nanos) {
+            this.pool = pool;
+            this.sql = sql;
+            this.nanos = nanos;
+        }
+
+        void finish() {
+            if (finished.compareAndSet(false, true)) {
+                QueryMetrics.record(pool, sql, nanos, rows, bytes, error);
+            }
+        }
+    }
+
+    private static class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String pool;
+        private final String preparedSql;
+        private volatile Execution current;
+
+        StatementHandler(Statement target, String pool, String preparedSql) {
+            this.target = target;
+            this.pool = pool;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            if (name.equals("getResultSet")) {
+                Object result = InstrumentedConnection.invoke(target, method, args);
+                return result instanceof ResultSet rs && current != null ? wrapResultSet(rs, current) : result;
+            }
+            if (name.equals("close")) {
+                finishCurrent();
+            }
+            return InstrumentedConnection.invoke(target, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            finishCurrent();
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = InstrumentedConnection.invoke(target, method, args);
+            } catch (SQLException e) {
+                Execution failed = new Execution(pool, sql, System.nanoTime() - start);
+                failed.error = true;
+                failed.finish();
+                throw e;
+            }
+            Execution execution = new Execution(pool, sql, System.nanoTime() - start);
+
+            if (result instanceof ResultSet rs) {
+                current = execution;
+                return wrapResultSet(rs, execution);
+            }
+            if (Boolean.TRUE.equals(result)) {
+                // execute() dengan hasil query: baris dibaca lewat getResultSet()
+                current = execution;
+                return result;
+            }
+            execution.rows = updateCount(result);
+            execution.finish();
+            return result;
+        }
+
+        private void finishCurrent() {
+            Execution execution = current;
+            if (execution != null) {
+                execution.finish();
+                current = null;
+            }
+        }
+
+        private static long updateCount(Object result) {
+            if (result instanceof Number n) return Math.max(n.longValue(), 0);
+            long total = 0;
+            if (result instanceof int[] counts) {
+                for (int c : counts) total += Math.max(c, 0);
+            } else if (result instanceof long[] counts) {
+                for (long c : counts) total += Math.max(c, 0);
+            }
+            return total;
+        }
+
+        private static ResultSet wrapResultSet(ResultSet rs, Execution execution) {
+            return (ResultSet) Proxy.newProxyInstance(InstrumentedConnection.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "next": {
+                                long start = System.nanoTime();
+                                try {
+                                    boolean hasRow = (Boolean) InstrumentedConnection.invoke(rs, method, args);
+                                    if (hasRow) execution.rows++;
+                                    return hasRow;
+                                } catch (SQLException e) {
+                                    execution.error = true;
+                                    throw e;
+                                } finally {
+                                    execution.nanos += System.nanoTime() - start;
+                                }
+                            }
+                            case "getBytes": {
+                                Object value = InstrumentedConnection.invoke(rs, method, args);
+                                if (value instanceof byte[] bytes) execution.bytes += bytes.length;
+                                return value;
+                            }
+                            case "getString": {
+                                Object value = InstrumentedConnection.invoke(rs, method, args);
+                                if (value instanceof String s) execution.bytes += s.length();
+                                return value;
+                            }
+                            case "close": {
+                                try {
+                                    return InstrumentedConnection.invoke(rs, method, args);
+                                } finally {
+                                    execution.finish();
+                                }
+                            }
+                            default:
+                                return InstrumentedConnection.invoke(rs, method, args);
+                        }
+                    });
+        }
+    }
+}
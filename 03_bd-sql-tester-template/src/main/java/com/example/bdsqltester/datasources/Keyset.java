@@ -0,0 +1,38 @@
+package com.example.bdsqltester.datasources;
+
+/**
+ * Potongan SQL untuk keyset pagination: halaman berikutnya dimulai setelah kunci baris terakhir
+ * ((a, b) &gt; (?, ?)) alih-alih OFFSET, jadi setiap halaman hanya membaca baris halaman itu.
+ * Kolom kunci harus unik bersama-sama, misalnya (username, id).
+ */
+final class Keyset {
+
+    private Keyset() {
+    }
+
+    static String orderBy(String[] columns, boolean descending) {
+        String direction = descending ? " DESC" : "";
+        StringBuilder sql = new StringBuilder(" ORDER BY ");
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) sql.append(", ");
+            sql.append(columns[i]).append(direction);
+        }
+        return sql.toString();
+    }
+
+    /** Kondisi "setelah baris terakhir"; semua kolom memakai arah yang sama, jadi cukup satu perbandingan baris. */
+    static String after(String[] columns, boolean descending) {
+        StringBuilder sql = new StringBuilder(" AND (");
+        sql.append(String.join(", ", columns)).append(descending ? ") < (" : ") > (");
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) sql.append(", ");
+            sql.append('?');
+        }
+        return sql.append(')').toString();
+    }
+
+    /** Pola ILIKE untuk "mengandung filter"; % dan _ di filter dicocokkan apa adanya. */
+    static String containsPattern(String filter) {
+        return "%" + filter.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+}
@@ -1,124 +1,154 @@
 package com.example.bdsqltester.datasources;
 
-import com.example.bdsqltester.dtos.Assignment;
 import com.zaxxer.hikari.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.sql.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class MainDataSource {
-    private static HikariConfig config = new HikariConfig();
-    private static HikariDataSource ds;
-    private static int currentUserId; // Untuk menyimpan ID user yang sedang login
-
-    static {
-        config.setJdbcUrl("jdbc:postgresql://localhost:5432/sql-tester");
-        config.setUsername("postgres");
-        config.setPassword("Marelin16");
-        config.addDataSourceProperty("cachePrepStmts", "true");
-        config.addDataSourceProperty("prepStmtCacheSize", "250");
-        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
-        ds = new HikariDataSource(config);
-    }
-
-    public static Connection getConnection() throws SQLException {
-        return ds.getConnection();
+    private static final Logger log = LoggerFactory.getLogger(MainDataSource.class);
+
+    private static volatile HikariDataSource ds;
+    private static volatile HikariDataSource readDs;
+
+    // Lag replica terakhir yang diukur, dicek paling sering sekali per read.lagCheckIntervalMillis
+    private static final boolean replicaConfigured = !DataSourceConfig.getString("read.jdbcUrl", "").isEmpty();
+    private static final long maxLagMillis = DataSourceConfig.getLong("read.maxLagMillis", 5000);
+    private static final long lagCheckIntervalNanos = DataSourceConfig.getLong("read.lagCheckIntervalMillis", 1000) * 1_000_000L;
+    private static volatile long replicaLagMillis;
+    private static volatile long nextLagCheckNanos = System.nanoTime();
+
+    /**
+     * Pool dibuat saat pertama kali dibutuhkan, bukan saat class di-load, supaya
+     * layar login bisa tampil sebelum koneksi ke database terbuka.
+     */
+    private static HikariDataSource dataSource() {
+        HikariDataSource current = ds;
+        if (current != null) return current;
+        synchronized (MainDataSource.class) {
+            if (ds == null) {
+                long start = System.nanoTime();
+                // Pengaturan koneksi dan pool dibaca dari database.properties (key "main.*")
+                ds = new HikariDataSource(DataSourceConfig.createHikariConfig("main"));
+                log.info("Main pool initialized in {} ms", (System.nanoTime() - start) / 1_000_000);
+            }
+            return ds;
+        }
     }
 
-    private MainDataSource() {}
-
-    public static void setCurrentUserId(int userId) {
-        currentUserId = userId;
+    /**
+     * Pool kedua untuk jalur baca, ke replica jika read.jdbcUrl diisi dan ke primary jika tidak.
+     * Username, password dan properti driver yang tidak diisi di read.* diambil dari main.*.
+     */
+    private static HikariDataSource readDataSource() {
+        HikariDataSource current = readDs;
+        if (current != null) return current;
+        synchronized (MainDataSource.class) {
+            if (readDs == null) {
+                long start = System.nanoTime();
+                HikariConfig main = DataSourceConfig.createHikariConfig("main");
+                HikariConfig config = DataSourceConfig.createHikariConfig("read");
+                if (!replicaConfigured) config.setJdbcUrl(main.getJdbcUrl());
+                if (config.getUsername() == null) config.setUsername(main.getUsername());
+                if (config.getPassword() == null) config.setPassword(main.getPassword());
+                main.getDataSourceProperties().forEach(config.getDataSourceProperties()::putIfAbsent);
+                config.setReadOnly(true);
+                readDs = new HikariDataSource(config);
+                log.info("Read pool ({}) initialized in {} ms", replicaConfigured ? "replica" : "primary",
+                        (System.nanoTime() - start) / 1_000_000);
+            }
+            return readDs;
+        }
     }
 
-    public static int getCurrentUserId() {
-        return currentUserId;
+    /** Membuat pool dan skema di background; dipanggil saat aplikasi mulai. */
+    public static CompletableFuture<Void> warmUp() {
+        return DatabaseExecutor.supplyAsync(() -> {
+            try (Connection c = getConnection()) {
+                if (!c.isValid(5)) log.warn("Main database connection is not valid after warm-up");
+                return null;
+            }
+        });
     }
 
-    public static List<Assignment> getCompletedAssignments() throws SQLException {
-        List<Assignment> assignments = new ArrayList<>();
-
-        String query = "SELECT a.id, a.name, g.grade_value " +
-                "FROM assignments a " +
-                "JOIN grades g ON a.id = g.assignment_id " +
-                "WHERE g.user_id = ? AND a.status = 'COMPLETED' " +
-                "ORDER BY a.completion_date DESC";
-
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setInt(1, getCurrentUserId());
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    assignments.add(new Assignment(
-                            rs.getLong("id"),
-                            rs.getString("name"),
-                            rs.getInt("grade_value")
-                    ));
-                }
-            }
+    public static Connection getConnection() throws SQLException {
+        HikariDataSource pool = dataSource();
+        long waitStart = System.nanoTime();
+        Connection c = pool.getConnection();
+        QueryMetrics.recordPoolWait("main", System.nanoTime() - waitStart);
+        try {
+            Schema.ensureCreated(c);
+        } catch (SQLException e) {
+            c.close();
+            throw e;
         }
-
-        return assignments;
+        StartupTimer.firstQuery();
+        return QueryMetrics.instrument(c, "main");
     }
 
-    public static double getAverageGrade() throws SQLException {
-        String query = "SELECT AVG(grade_value) as average " +
-                "FROM grades " +
-                "WHERE user_id = ?";
-
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setInt(1, getCurrentUserId());
+    /**
+     * Koneksi read-only untuk dashboard dan daftar yang boleh sedikit tertinggal dari primary.
+     * Jika replica tidak bisa dihubungi atau lag-nya lebih dari read.maxLagMillis,
+     * koneksi primary dari {@link #getConnection()} yang dikembalikan.
+     * Data yang harus langsung terlihat setelah ditulis tetap dibaca lewat {@link #getConnection()}.
+     */
+    public static Connection getReadConnection() throws SQLException {
+        // Skema dibuat lewat koneksi primary; replica dan koneksi read-only tidak bisa menjalankan DDL
+        if (!Schema.isCreated()) return getConnection();
+        if (replicaConfigured && replicaLagMillis > maxLagMillis && System.nanoTime() - nextLagCheckNanos < 0) {
+            return getConnection();
+        }
 
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getDouble("average");
-                }
+        HikariDataSource pool = readDataSource();
+        long waitStart = System.nanoTime();
+        Connection c;
+        try {
+            c = pool.getConnection();
+        } catch (SQLException e) {
+            if (!replicaConfigured) throw e;
+            log.warn("Replica unavailable, reading from primary: {}", e.getMessage());
+            return getConnection();
+        }
+        QueryMetrics.recordPoolWait("read", System.nanoTime() - waitStart);
+
+        if (replicaConfigured && System.nanoTime() - nextLagCheckNanos >= 0) {
+            try {
+                replicaLagMillis = measureLagMillis(c);
+            } catch (SQLException e) {
+                c.close();
+                throw e;
+            } finally {
+                nextLagCheckNanos = System.nanoTime() + lagCheckIntervalNanos;
+            }
+            if (replicaLagMillis > maxLagMillis) {
+                log.warn("Replica lag {} ms exceeds {} ms, reading from primary", replicaLagMillis, maxLagMillis);
+                c.close();
+                return getConnection();
             }
         }
-
-        return 0.0;
+        return QueryMetrics.instrument(c, "read");
     }
 
-    public static AssignmentStats getAssignmentStats() throws SQLException {
-        String query = "SELECT " +
-                "COUNT(*) as total, " +
-                "SUM(CASE WHEN grade_value >= 70 THEN 1 ELSE 0 END) as passed, " +
-                "AVG(grade_value) as average " +
-                "FROM grades " +
-                "WHERE user_id = ?";
-
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setInt(1, getCurrentUserId());
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return new AssignmentStats(
-                            rs.getInt("total"),
-                            rs.getInt("passed"),
-                            rs.getDouble("average")
-                    );
-                }
-            }
+    /** 0 jika replica sudah memutar ulang semua WAL yang diterima (atau bukan standby). */
+    private static long measureLagMillis(Connection c) throws SQLException {
+        String sql = "SELECT CASE WHEN NOT pg_is_in_recovery() " +
+                "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+                "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+        try (Statement stmt = c.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
         }
-
-        return new AssignmentStats(0, 0, 0.0);
     }
 
-    public static class AssignmentStats {
-        public final int totalAssignments;
-        public final int passedAssignments;
-        public final double averageGrade;
-
-        public AssignmentStats(int totalAssignments, int passedAssignments, double averageGrade) {
-            this.totalAssignments = totalAssignments;
-            this.passedAssignments = passedAssignments;
-            this.averageGrade = averageGrade;
-        }
+    public static void close() {
+        HikariDataSource current = ds;
+        if (current != null) current.close();
+        HikariDataSource read = readDs;
+        if (read != null) read.close();
     }
-}
\ No newline at end of file
+
+    private MainDataSource() {}
+}
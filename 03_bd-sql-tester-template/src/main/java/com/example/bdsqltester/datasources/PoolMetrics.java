@@ -0,0 +1,145 @@
+package com.example.bdsqltester.datasources;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registry metrik pool HikariCP di dalam proses. Setiap pool yang dibuat lewat
+ * {@link DataSourceConfig#createHikariConfig} mendaftarkan diri di sini dengan nama pool-nya.
+ */
+public final class PoolMetrics implements IMetricsTracker {
+    public static final MetricsTrackerFactory FACTORY = PoolMetrics::register;
+
+    private static final Map<String, PoolMetrics> registry = new ConcurrentHashMap<>();
+
+    private final String poolName;
+    private final PoolStats poolStats;
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder acquireNanosTotal = new LongAdder();
+    private final LongAccumulator acquireNanosMax = new LongAccumulator(Math::max, 0);
+    private final LongAdder usageMillisTotal = new LongAdder();
+    private final LongAccumulator usageMillisMax = new LongAccumulator(Math::max, 0);
+    private final LongAdder connectionsCreated = new LongAdder();
+    private final LongAdder creationMillisTotal = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    private PoolMetrics(String poolName, PoolStats poolStats) {
+        this.poolName = poolName;
+        this.poolStats = poolStats;
+    }
+
+    private static IMetricsTracker register(String poolName, PoolStats poolStats) {
+        PoolMetrics metrics = new PoolMetrics(poolName, poolStats);
+        registry.put(poolName, metrics);
+        return metrics;
+    }
+
+    public static PoolMetrics get(String poolName) {
+        return registry.get(poolName);
+    }
+
+    public static List<PoolMetrics> all() {
+        return new ArrayList<>(registry.values());
+    }
+
+    @Override
+    public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+        connectionsCreated.increment();
+        creationMillisTotal.add(connectionCreatedMillis);
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        acquisitions.increment();
+        acquireNanosTotal.add(elapsedAcquiredNanos);
+        acquireNanosMax.accumulate(elapsedAcquiredNanos);
+    }
+
+    @Override
+    public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+        usageMillisTotal.add(elapsedBorrowedMillis);
+        usageMillisMax.accumulate(elapsedBorrowedMillis);
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+        timeouts.increment();
+    }
+
+    @Override
+    public void close() {
+        registry.remove(poolName, this);
+    }
+
+    public String getPoolName() {
+        return poolName;
+    }
+
+    public int getActiveConnections() {
+        return poolStats.getActiveConnections();
+    }
+
+    public int getIdleConnections() {
+        return poolStats.getIdleConnections();
+    }
+
+    public int getTotalConnections() {
+        return poolStats.getTotalConnections();
+    }
+
+    public int getPendingThreads() {
+        return poolStats.getPendingThreads();
+    }
+
+    public int getMaxConnections() {
+        return poolStats.getMaxConnections();
+    }
+
+    public long getAcquisitions() {
+        return acquisitions.sum();
+    }
+
+    public double getAverageAcquireMillis() {
+        long count = acquisitions.sum();
+        return count > 0 ? acquireNanosTotal.sum() / 1e6 / count : 0;
+    }
+
+    public double getMaxAcquireMillis() {
+        return acquireNanosMax.get() / 1e6;
+    }
+
+    public double getAverageUsageMillis() {
+        long count = acquisitions.sum();
+        return count > 0 ? (double) usageMillisTotal.sum() / count : 0;
+    }
+
+    public long getMaxUsageMillis() {
+        return usageMillisMax.get();
+    }
+
+    public long getConnectionsCreated() {
+        return connectionsCreated.sum();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("pool=%s active=%d idle=%d total=%d/%d pending=%d acquisitions=%d " +
+                        "acquireAvg=%.2fms acquireMax=%.2fms usageAvg=%.1fms usageMax=%dms created=%d timeouts=%d",
+                poolName, getActiveConnections(), getIdleConnections(), getTotalConnections(), getMaxConnections(),
+                getPendingThreads(), getAcquisitions(), getAverageAcquireMillis(), getMaxAcquireMillis(),
+                getAverageUsageMillis(), getMaxUsageMillis(), getConnectionsCreated(), getTimeouts());
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.bdsqltester.datasources;
+
+/**
+ * Batas sumber daya untuk query di GradingDataSource.
+ * Nilai 0 berarti tidak dibatasi.
+ */
+public class QueryBudget {
+    public final long statementTimeoutMillis;
+    public final long idleInTransactionTimeoutMillis;
+    public final int maxRows;
+    public final String workMem;
+
+    public QueryBudget(long statementTimeoutMillis, long idleInTransactionTimeoutMillis, int maxRows, String workMem) {
+        this.statementTimeoutMillis = statementTimeoutMillis;
+        this.idleInTransactionTimeoutMillis = idleInTransactionTimeoutMillis;
+        this.maxRows = maxRows;
+        this.workMem = workMem;
+    }
+
+    /**
+     * Batas waktu di sisi JDBC (detik), sedikit di atas statement_timeout supaya
+     * server yang menghentikan query lebih dulu. 0 jika tidak dibatasi.
+     */
+    public int queryTimeoutSeconds() {
+        if (statementTimeoutMillis <= 0) return 0;
+        return (int) Math.ceil(statementTimeoutMillis / 1000.0) + 5;
+    }
+
+    @Override
+    public String toString() {
+        return "statement_timeout=" + statementTimeoutMillis + "ms, idle_in_transaction=" + idleInTransactionTimeoutMillis
+                + "ms, maxRows=" + maxRows + ", work_mem=" + workMem;
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.bdsqltester.datasources;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Membatasi query di GradingDataSource per role (statement_timeout,
+ * idle_in_transaction_session_timeout, work_mem, max rows, query timeout)
+ * dan mencatat setiap query yang dihentikan karena batas tersebut.
+ *
+ * Query yang menghasilkan lebih dari maxRows baris gagal dengan {@link RowLimitExceededException}
+ * saat baris ke maxRows + 1 dibaca, bukan dipotong diam-diam, supaya hasil yang terpotong tidak
+ * dinilai seolah-olah lengkap.
+ */
+public final class QueryGovernor {
+    public static final String ROLE_STUDENT = "student";
+    public static final String ROLE_ADMIN = "admin";
+    /** SQLState untuk query yang dihentikan (statement_timeout, setQueryTimeout atau cancel). */
+    public static final String SQLSTATE_QUERY_CANCELED = "57014";
+
+    private static final int MAX_KILL_EVENTS = 500;
+    private static final Logger log = LoggerFactory.getLogger(QueryGovernor.class);
+
+    private static final Map<String, QueryBudget> budgets = new ConcurrentHashMap<>();
+    private static final Deque<KillEvent> killEvents = new ArrayDeque<>();
+
+    static {
+        budgets.put(ROLE_STUDENT, loadBudget(ROLE_STUDENT, new QueryBudget(10_000, 120_000, 1_000_000, "16MB")));
+        budgets.put(ROLE_ADMIN, loadBudget(ROLE_ADMIN, new QueryBudget(60_000, 600_000, 0, "64MB")));
+    }
+
+    private QueryGovernor() {
+    }
+
+    /** Membaca governor.&lt;role&gt;.* dari {@link DataSourceConfig}, dengan nilai bawaan sebagai cadangan. */
+    private static QueryBudget loadBudget(String role, QueryBudget defaults) {
+        String prefix = "governor." + role + ".";
+        return new QueryBudget(
+                DataSourceConfig.getLong(prefix + "statementTimeoutMillis", defaults.statementTimeoutMillis),
+                DataSourceConfig.getLong(prefix + "idleInTransactionTimeoutMillis", defaults.idleInTransactionTimeoutMillis),
+                DataSourceConfig.getInt(prefix + "maxRows", defaults.maxRows),
+                DataSourceConfig.getString(prefix + "workMem", defaults.workMem));
+    }
+
+    public static QueryBudget getBudget(String role) {
+        return budgets.getOrDefault(role, budgets.get(ROLE_STUDENT));
+    }
+
+    public static void setBudget(String role, QueryBudget budget) {
+        budgets.put(role, budget);
+    }
+
+    /** Menerapkan batas sesi pada koneksi dan membungkusnya supaya setiap Statement ikut dibatasi. */
+    static Connection govern(Connection conn, String role) throws SQLException {
+        QueryBudget budget = getBudget(role);
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT set_config('statement_timeout', ?, false), " +
+                        "set_config('idle_in_transaction_session_timeout', ?, false), " +
+                        "set_config('work_mem', ?, false)")) {
+            stmt.setString(1, String.valueOf(budget.statementTimeoutMillis));
+            stmt.setString(2, String.valueOf(budget.idleInTransactionTimeoutMillis));
+            stmt.setString(3, budget.workMem);
+            stmt.execute();
+        }
+        return (Connection) Proxy.newProxyInstance(QueryGovernor.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(conn, role, budget));
+    }
+
+    public static synchronized List<KillEvent> getKillEvents() {
+        return new ArrayList<>(killEvents);
+    }
+
+    static void recordIfKilled(String role, String sql, long elapsedMillis, QueryBudget budget, SQLException e) {
+        String reason = killReason(e, elapsedMillis, budget);
+        if (reason == null) return;
+
+        KillEvent event = new KillEvent(Instant.now(), role, reason, elapsedMillis, sql);
+        log.warn("Query killed: role={}, reason={}, duration={}ms, budget=[{}], sql={}",
+                role, reason, elapsedMillis, budget, event.sql);
+        synchronized (QueryGovernor.class) {
+            if (killEvents.size() == MAX_KILL_EVENTS) killEvents.removeFirst();
+            killEvents.addLast(event);
+        }
+    }
+
+    private static String killReason(SQLException e, long elapsedMillis, QueryBudget budget) {
+        if (e instanceof RowLimitExceededException) return "max_rows";
+        String state = e.getSQLState();
+        String message = e.getMessage() != null ? e.getMessage() : "";
+        if ("25P03".equals(state) || message.contains("idle-in-transaction timeout")) {
+            return "idle_in_transaction_session_timeout";
+        }
+        if (!SQLSTATE_QUERY_CANCELED.equals(state)) return null;
+        if (message.contains("statement timeout")) return "statement_timeout";
+        // pgjdbc memakai cancel request untuk setQueryTimeout, pesannya sama dengan pembatalan oleh user
+        if (budget.queryTimeoutSeconds() > 0 && elapsedMillis >= budget.queryTimeoutSeconds() * 1000L) {
+            return "query_timeout";
+        }
+        return "cancelled";
+    }
+
+    public static class KillEvent {
+        public final Instant time;
+        public final String role;
+        public final String reason;
+        public final long durationMillis;
+        public final String sql;
+
+        KillEvent(Instant time, String role, String reason, long durationMillis, String sql) {
+            this.time = time;
+            this.role = role;
+            this.reason = reason;
+            this.durationMillis = durationMillis;
+            this.sql = sql == null ? null : sql.length() > 200 ? sql.substring(0, 200) + "..." : sql;
+        }
+    }
+
+    /** Query menghasilkan lebih dari maxRows baris untuk role-nya. SQLState 54000 (program_limit_exceeded). */
+    public static class RowLimitExceededException extends SQLException {
+        private static final long serialVersionUID = 1L;
+
+        RowLimitExceededException(int maxRows) {
+            super("Query returned more than " + maxRows + " rows", "54000");
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+        private final String role;
+        private final QueryBudget budget;
+
+        ConnectionHandler(Connection target, String role, QueryBudget budget) {
+            this.target = target;
+            this.role = role;
+            this.budget = budget;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = QueryGovernor.invoke(target, method, args);
+            if (!(result instanceof Statement stmt)) return result;
+
+            // Satu baris lebih dari batas, supaya hasil yang melewati batas bisa dibedakan dari yang pas
+            if (budget.maxRows > 0) stmt.setMaxRows(budget.maxRows < Integer.MAX_VALUE ? budget.maxRows + 1 : budget.maxRows);
+            if (budget.queryTimeoutSeconds() > 0) stmt.setQueryTimeout(budget.queryTimeoutSeconds());
+
+            Class<?> type = result instanceof CallableStatement ? CallableStatement.class
+                    : result instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+            String preparedSql = args != null && args.length > 0 && args[0] instanceof String sql ? sql : null;
+            return Proxy.newProxyInstance(QueryGovernor.class.getClassLoader(), new Class<?>[]{type},
+                    new StatementHandler(stmt, role, budget, preparedSql));
+        }
+    }
+
+    private static class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String role;
+        private final QueryBudget budget;
+        private final String preparedSql;
+        private String lastSql;
+        private long startNanos;
+
+        StatementHandler(Statement target, String role, QueryBudget budget, String preparedSql) {
+            this.target = target;
+            this.role = role;
+            this.budget = budget;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().startsWith("execute")) {
+                startNanos = System.nanoTime();
+                lastSql = args != null && args.length > 0 && args[0] instanceof String sql ? sql : preparedSql;
+            }
+            Object result;
+            try {
+                result = QueryGovernor.invoke(target, method, args);
+            } catch (SQLException e) {
+                recordFailure(e);
+                throw e;
+            }
+            if (result instanceof ResultSet rs) {
+                // Dengan cursor, query bisa dihentikan saat rs.next() mengambil baris berikutnya
+                long[] rows = {0};
+                return Proxy.newProxyInstance(QueryGovernor.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                        (rsProxy, rsMethod, rsArgs) -> {
+                            try {
+                                Object value = QueryGovernor.invoke(rs, rsMethod, rsArgs);
+                                if (budget.maxRows > 0 && rsMethod.getName().equals("next")
+                                        && Boolean.TRUE.equals(value) && ++rows[0] > budget.maxRows) {
+                                    throw new RowLimitExceededException(budget.maxRows);
+                                }
+                                return value;
+                            } catch (SQLException e) {
+                                recordFailure(e);
+                                throw e;
+                            }
+                        });
+            }
+            return result;
+        }
+
+        private void recordFailure(SQLException e) {
+            long elapsed = startNanos == 0 ? 0 : (System.nanoTime() - startNanos) / 1_000_000;
+            recordIfKilled(role, lastSql, elapsed, budget, e);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.bdsqltester.datasources;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Statistik query per template SQL (literal diganti "?") dan waktu tunggu pool,
+ * dikumpulkan dari koneksi yang dibungkus {@link #instrument}. Bisa dilihat di jendela
+ * Diagnostics admin, di log secara berkala, atau sebagai file CSV (lihat metrics.* di
+ * database.properties).
+ */
+public final class QueryMetrics {
+    public static final String CSV_HEADER =
+            "pool,template,count,errors,mean_ms,p50_ms,p95_ms,p99_ms,max_ms,total_ms,rows,bytes";
+
+    private static final int MAX_TEMPLATES = 1000;
+    private static final int MAX_TEMPLATE_LENGTH = 300;
+    private static final String OTHER_TEMPLATE = "(other)";
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Logger log = LoggerFactory.getLogger(QueryMetrics.class);
+
+    private static final boolean enabled = Boolean.parseBoolean(DataSourceConfig.getString("metrics.enabled", "true"));
+    private static final Map<String, String> templateCache = new ConcurrentHashMap<>();
+    private static final Map<String, TemplateStats> stats = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> poolWait = new ConcurrentHashMap<>();
+    // Penampung waktu tunggu pool per operasi (LoadTest). Diwariskan ke thread yang dibuat dari
+    // thread pemanggil, jadi ikut terisi oleh pekerjaan di virtual thread DatabaseExecutor.
+    private static final InheritableThreadLocal<LongAdder> poolWaitSink = new InheritableThreadLocal<>();
+    private static ScheduledExecutorService reporter;
+
+    private QueryMetrics() {
+    }
+
+    /** Membungkus koneksi supaya setiap Statement dan ResultSet-nya tercatat untuk pool tersebut. */
+    static Connection instrument(Connection conn, String pool) {
+        return enabled ? InstrumentedConnection.wrap(conn, pool) : conn;
+    }
+
+    static void recordPoolWait(String pool, long nanos) {
+        LongAdder sink = poolWaitSink.get();
+        if (sink != null) sink.add(nanos);
+        if (enabled) poolWait.computeIfAbsent(pool, p -> new LatencyHistogram()).recordNanos(nanos);
+    }
+
+    static void record(String pool, String sql, long nanos, long rows, long bytes, boolean error) {
+        String template = template(sql);
+        TemplateStats entry = stats.get(pool + '\u0000' + template);
+        if (entry == null) {
+            if (stats.size() >= MAX_TEMPLATES) template = OTHER_TEMPLATE;
+            String t = template;
+            entry = stats.computeIfAbsent(pool + '\u0000' + template, k -> new TemplateStats(pool, t));
+        }
+        entry.latency.recordNanos(nanos);
+        entry.rows.add(rows);
+        entry.bytes.add(bytes);
+        if (error) entry.errors.increment();
+    }
+
+    /** "SELECT * FROM t WHERE id = 5 AND name = 'x'" -> "SELECT * FROM t WHERE id = ? AND name = ?" */
+    static String template(String sql) {
+        if (sql == null) return OTHER_TEMPLATE;
+        String cached = templateCache.get(sql);
+        if (cached != null) return cached;
+
+        String template = STRING_LITERAL.matcher(sql).replaceAll("?");
+        template = NUMBER_LITERAL.matcher(template).replaceAll("?");
+        template = WHITESPACE.matcher(template).replaceAll(" ").strip();
+        if (template.length() > MAX_TEMPLATE_LENGTH) template = template.substring(0, MAX_TEMPLATE_LENGTH) + "...";
+        if (templateCache.size() < MAX_TEMPLATES * 4) templateCache.put(sql, template);
+        return template;
+    }
+
+    /** Semua template, urut dari total waktu terbesar. */
+    public static List<TemplateStats> getTemplateStats() {
+        List<TemplateStats> list = new ArrayList<>(stats.values());
+        list.sort(Comparator.comparingDouble((TemplateStats s) -> s.latency.getTotalMillis()).reversed());
+        return list;
+    }
+
+    public static Map<String, LatencyHistogram> getPoolWait() {
+        return Map.copyOf(poolWait);
+    }
+
+    /**
+     * Menjumlahkan waktu tunggu pool (nanodetik) di thread ini dan thread yang dibuatnya ke sink;
+     * null untuk berhenti. Thread pool yang sudah ada sebelumnya tidak ikut tercatat.
+     */
+    public static void setPoolWaitSink(LongAdder sink) {
+        if (sink != null) {
+            poolWaitSink.set(sink);
+        } else {
+            poolWaitSink.remove();
+        }
+    }
+
+    public static void reset() {
+        stats.clear();
+        poolWait.clear();
+    }
+
+    public static void writeCsv(Writer out) throws IOException {
+        out.write(CSV_HEADER);
+        out.write('\n');
+        for (TemplateStats s : getTemplateStats()) {
+            out.write(csvRow(s.pool, s.template, s.latency, s.errors.sum(), s.rows.sum(), s.bytes.sum()));
+        }
+        for (Map.Entry<String, LatencyHistogram> entry : poolWait.entrySet()) {
+            out.write(csvRow(entry.getKey(), "(pool wait)", entry.getValue(), 0, 0, 0));
+        }
+    }
+
+    private static String csvRow(String pool, String template, LatencyHistogram h, long errors, long rows, long bytes) {
+        return String.format(Locale.ROOT, "%s,\"%s\",%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.1f,%d,%d%n",
+                pool, template.replace("\"", "\"\""), h.getCount(), errors, h.getMeanMillis(),
+                h.getPercentileMillis(50), h.getPercentileMillis(95), h.getPercentileMillis(99),
+                h.getMaxMillis(), h.getTotalMillis(), rows, bytes);
+    }
+
+    /**
+     * Menulis ringkasan ke log (dan ke file CSV jika metrics.csvFile diisi) setiap
+     * metrics.reportIntervalSeconds detik. 0 berarti tidak ada laporan berkala.
+     */
+    public static synchronized void startReporter() {
+        long interval = DataSourceConfig.getLong("metrics.reportIntervalSeconds", 0);
+        if (!enabled || interval <= 0 || reporter != null) return;
+        String csvFile = DataSourceConfig.getString("metrics.csvFile", "");
+
+        reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "query-metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> report(csvFile.isEmpty() ? null : Path.of(csvFile)),
+                interval, interval, TimeUnit.SECONDS);
+    }
+
+    public static synchronized void stopReporter() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+    }
+
+    private static void report(Path csvFile) {
+        List<TemplateStats> top = getTemplateStats();
+        for (int i = 0; i < Math.min(10, top.size()); i++) {
+            TemplateStats s = top.get(i);
+            log.info("Query [{}] count={} p50={}ms p99={}ms max={}ms total={}ms rows={} errors={}: {}",
+                    s.pool, s.latency.getCount(), format(s.latency.getPercentileMillis(50)),
+                    format(s.latency.getPercentileMillis(99)), format(s.latency.getMaxMillis()),
+                    format(s.latency.getTotalMillis()), s.rows.sum(), s.errors.sum(), s.template);
+        }
+        poolWait.forEach((pool, h) -> log.info("Pool wait [{}] count={} p50={}ms p99={}ms max={}ms",
+                pool, h.getCount(), format(h.getPercentileMillis(50)), format(h.getPercentileMillis(99)),
+                format(h.getMaxMillis())));
+
+        if (csvFile == null) return;
+        try {
+            // Tulis ke file sementara lalu ganti, supaya pembaca tidak melihat file setengah jadi
+            Path tmp = csvFile.resolveSibling(csvFile.getFileName() + ".tmp");
+            try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                writeCsv(out);
+            }
+            Files.move(tmp, csvFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("Failed to write query metrics to {}: {}", csvFile, e.getMessage());
+        }
+    }
+
+    private static String format(double millis) {
+        return String.format(Locale.ROOT, "%.1f", millis);
+    }
+
+    public static class TemplateStats {
+        public final String pool;
+        public final String template;
+        public final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder rows = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        final LongAdder errors = new LongAdder();
+
+        TemplateStats(String pool, String template) {
+            this.pool = pool;
+            this.template = template;
+        }
+
+        public long getRows() {
+            return rows.sum();
+        }
+
+        public long getBytes() {
+            return bytes.sum();
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+    }
+}
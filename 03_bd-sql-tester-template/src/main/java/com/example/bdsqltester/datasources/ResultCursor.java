@@ -0,0 +1,220 @@
+package com.example.bdsqltester.datasources;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Cursor di sisi server untuk menampilkan hasil query sedikit demi sedikit.
+ *
+ * Koneksi dibuka dengan autocommit mati dan fetch size terbatas, jadi PostgreSQL
+ * hanya mengirim baris yang diminta. Pengambilan berhenti di batas baris atau
+ * perkiraan byte, sehingga query seperti CROSS JOIN besar tidak menghabiskan heap.
+ * Jika pemanggil hanya menyimpan heapRows baris pertama di heap (sisanya ke disk, lihat
+ * {@link SpillingRowStore}), batas byte heap hanya dihitung untuk baris-baris itu dan baris
+ * setelahnya dibatasi maxSpilledBytes.
+ *
+ * Semua operasi JDBC dijalankan berurutan di {@link DatabaseExecutor}.
+ */
+public final class ResultCursor {
+    public static final int FETCH_SIZE = 500;
+    public static final int DEFAULT_MAX_ROWS = 100_000;
+    public static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+
+    private final int maxRows;
+    private final long maxBytes;
+    private final int heapRows;
+    private final long maxSpilledBytes;
+    private final List<String> headers = new ArrayList<>();
+
+    private Connection conn;
+    private volatile Statement statement;
+    private ResultSet rs;
+    private int columnCount;
+
+    private volatile int rowsFetched;
+    private volatile long bytesFetched;
+    private volatile long spilledBytes;
+    private volatile boolean exhausted;
+    private volatile boolean limitReached;
+    private volatile boolean closed;
+
+    // Rantai operasi supaya fetch dan close tidak berjalan bersamaan pada koneksi yang sama
+    private final Object tailLock = new Object();
+    private CompletableFuture<?> tail = CompletableFuture.completedFuture(null);
+
+    private ResultCursor(int maxRows, long maxBytes, int heapRows, long maxSpilledBytes) {
+        this.maxRows = maxRows;
+        this.maxBytes = maxBytes;
+        this.heapRows = heapRows;
+        this.maxSpilledBytes = maxSpilledBytes;
+    }
+
+    public static CompletableFuture<ResultCursor> open(SqlSupplier<Connection> connectionSource, String sql) {
+        return open(connectionSource, sql, DEFAULT_MAX_ROWS, DEFAULT_MAX_BYTES);
+    }
+
+    public static CompletableFuture<ResultCursor> open(SqlSupplier<Connection> connectionSource, String sql,
+                                                       int maxRows, long maxBytes) {
+        return open(connectionSource, sql, maxRows, maxBytes, maxRows, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param maxBytes        batas perkiraan byte untuk heapRows baris pertama yang disimpan di heap
+     * @param maxSpilledBytes batas perkiraan byte (UTF-8) untuk baris setelah heapRows, yang disimpan di disk
+     */
+    public static CompletableFuture<ResultCursor> open(SqlSupplier<Connection> connectionSource, String sql,
+                                                       int maxRows, long maxBytes, int heapRows, long maxSpilledBytes) {
+        ResultCursor cursor = new ResultCursor(maxRows, maxBytes, heapRows, maxSpilledBytes);
+        return cursor.enqueue(() -> {
+            cursor.execute(connectionSource, sql);
+            return cursor;
+        });
+    }
+
+    private void execute(SqlSupplier<Connection> connectionSource, String sql) throws SQLException {
+        if (closed) return;
+        conn = connectionSource.get();
+        try {
+            conn.setAutoCommit(false);
+            Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(FETCH_SIZE);
+            statement = stmt;
+            rs = stmt.executeQuery(sql);
+
+            ResultSetMetaData metaData = rs.getMetaData();
+            columnCount = metaData.getColumnCount();
+            for (int i = 1; i <= columnCount; i++) {
+                headers.add(metaData.getColumnLabel(i));
+            }
+        } catch (SQLException e) {
+            closeResources();
+            throw e;
+        }
+    }
+
+    /** Mengambil paling banyak pageSize baris berikutnya. */
+    public CompletableFuture<List<ArrayList<String>>> fetch(int pageSize) {
+        return enqueue(() -> {
+            List<ArrayList<String>> page = new ArrayList<>();
+            while (!closed && !exhausted && !limitReached && page.size() < pageSize) {
+                if (overLimit()) {
+                    limitReached = true;
+                    break;
+                }
+                if (!rs.next()) {
+                    exhausted = true;
+                    break;
+                }
+                boolean onHeap = rowsFetched < heapRows;
+                ArrayList<String> row = new ArrayList<>(columnCount);
+                for (int i = 1; i <= columnCount; i++) {
+                    String value = rs.getString(i);
+                    row.add(value != null ? value : "");
+                    if (onHeap) {
+                        // Perkiraan kasar: 2 byte per karakter ditambah overhead objek String
+                        bytesFetched += 40 + (value != null ? value.length() * 2L : 0);
+                    } else {
+                        // Di file: panjang (int) ditambah kira-kira satu byte per karakter
+                        spilledBytes += 4 + (value != null ? value.length() : 0);
+                    }
+                }
+                rowsFetched++;
+                page.add(row);
+            }
+            if (!exhausted && overLimit()) {
+                limitReached = true;
+            }
+            if (exhausted || limitReached) {
+                closeResources();
+            }
+            return page;
+        });
+    }
+
+    private boolean overLimit() {
+        return rowsFetched >= maxRows || bytesFetched >= maxBytes || spilledBytes >= maxSpilledBytes;
+    }
+
+    /** Menghentikan query yang sedang berjalan dan mengembalikan koneksi ke pool. */
+    public void close() {
+        closed = true;
+        Statement stmt = statement;
+        if (stmt != null) {
+            try {
+                stmt.cancel();
+            } catch (SQLException e) {
+                // Statement mungkin sudah ditutup
+            }
+        }
+        enqueue(() -> {
+            closeResources();
+            return null;
+        });
+    }
+
+    public List<String> getHeaders() {
+        return headers;
+    }
+
+    public int getRowsFetched() {
+        return rowsFetched;
+    }
+
+    public long getBytesFetched() {
+        return bytesFetched;
+    }
+
+    public boolean isExhausted() {
+        return exhausted;
+    }
+
+    public boolean isLimitReached() {
+        return limitReached;
+    }
+
+    public int getMaxRows() {
+        return maxRows;
+    }
+
+    private <T> CompletableFuture<T> enqueue(SqlSupplier<T> work) {
+        synchronized (tailLock) {
+            CompletableFuture<T> next = tail.handle((ignored, error) -> null)
+                    .thenApplyAsync(ignored -> {
+                        try {
+                            return work.get();
+                        } catch (SQLException e) {
+                            throw new CompletionException(e);
+                        }
+                    }, DatabaseExecutor.executor());
+            tail = next;
+            return next;
+        }
+    }
+
+    private void closeResources() {
+        Statement stmt = statement;
+        statement = null;
+        try {
+            if (rs != null) rs.close();
+            if (stmt != null) stmt.close();
+        } catch (SQLException ignored) {
+        }
+        try {
+            // Hanya SELECT yang dijalankan, jadi transaksi cukup di-rollback
+            if (conn != null) {
+                conn.rollback();
+                conn.close();
+            }
+        } catch (SQLException ignored) {
+        }
+        rs = null;
+        conn = null;
+    }
+}
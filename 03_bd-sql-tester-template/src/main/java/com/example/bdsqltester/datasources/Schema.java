@@ -0,0 +1,267 @@
+package com.example.bdsqltester.datasources;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Tabel tambahan yang dibutuhkan aplikasi di database sql-tester.
+ *
+ * Versi skema yang terpasang disimpan di tabel schema_version. Jika versinya sudah
+ * {@link #VERSION} atau lebih baru, koneksi pertama hanya membaca satu baris itu; DDL (ALTER,
+ * trigger, pengisian awal) hanya dijalankan saat skema masih lama, jadi aplikasi mahasiswa tidak
+ * butuh hak DDL dan tidak mengambil lock ACCESS EXCLUSIVE setiap kali mulai.
+ * Semua perintah tetap idempotent, jadi aman jika dua instance memperbarui skema bersamaan.
+ */
+public final class Schema {
+    // Naikkan setiap kali perintah di STATEMENTS ditambah atau diubah
+    static final int VERSION = 3;
+
+    // Mengisi grade_sq_sum dan grade_counts dari grades dalam satu pass (GROUP BY assignment dan nilai),
+    // lalu menyusun array 101 elemen per assignment dari hasil agregat yang kecil
+    private static final String BACKFILL_GRADE_COUNTS =
+            "        WITH per AS (SELECT assignment_id, least(greatest(round(grade), 0), 100)::int AS exact,\n" +
+                    "                            count(*) AS n, sum(grade * grade) AS sq\n" +
+                    "                       FROM grades WHERE grade IS NOT NULL GROUP BY 1, 2),\n" +
+                    "             ids AS (SELECT DISTINCT assignment_id FROM per)\n" +
+                    "        UPDATE assignment_stats s\n" +
+                    "           SET grade_sq_sum = (SELECT sum(sq) FROM per WHERE per.assignment_id = ids.assignment_id),\n" +
+                    "               grade_counts = ARRAY(SELECT coalesce(per.n, 0) FROM generate_series(0, 100) e\n" +
+                    "                                      LEFT JOIN per ON per.assignment_id = ids.assignment_id\n" +
+                    "                                           AND per.exact = e\n" +
+                    "                                     ORDER BY e)\n" +
+                    "          FROM ids WHERE s.assignment_id = ids.assignment_id;\n";
+
+    // Statistik per assignment yang diperbarui trigger setiap kali grades berubah,
+    // supaya dashboard admin tidak perlu memindai seluruh tabel grades.
+    // histogram[1..11] = jumlah nilai 0-9, 10-19, ..., 90-99, 100;
+    // grade_counts[1..101] = jumlah nilai (dibulatkan) 0, 1, ..., 100 untuk median dan persentil,
+    // grade_sq_sum untuk simpangan baku
+    private static final String UPDATE_ASSIGNMENT_STATS_FUNCTION =
+            "    CREATE OR REPLACE FUNCTION grades_update_assignment_stats() RETURNS trigger\n" +
+                    "    LANGUAGE plpgsql AS $fn$\n" +
+                    "    DECLARE bucket INT;\n" +
+                    "            exact INT;\n" +
+                    "    BEGIN\n" +
+                    "        IF TG_OP = 'UPDATE' AND OLD.assignment_id = NEW.assignment_id\n" +
+                    "                AND OLD.grade IS NOT DISTINCT FROM NEW.grade THEN\n" +
+                    "            RETURN NULL;\n" +
+                    "        END IF;\n" +
+                    "        IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.grade IS NOT NULL THEN\n" +
+                    "            bucket := least(greatest(floor(OLD.grade / 10), 0), 10) + 1;\n" +
+                    "            exact := least(greatest(round(OLD.grade), 0), 100) + 1;\n" +
+                    "            UPDATE assignment_stats SET grade_sum = grade_sum - OLD.grade,\n" +
+                    "                   grade_count = grade_count - 1,\n" +
+                    "                   histogram[bucket] = histogram[bucket] - 1,\n" +
+                    "                   grade_sq_sum = grade_sq_sum - OLD.grade * OLD.grade,\n" +
+                    "                   grade_counts[exact] = grade_counts[exact] - 1\n" +
+                    "             WHERE assignment_id = OLD.assignment_id;\n" +
+                    "        END IF;\n" +
+                    "        IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.grade IS NOT NULL THEN\n" +
+                    "            bucket := least(greatest(floor(NEW.grade / 10), 0), 10) + 1;\n" +
+                    "            exact := least(greatest(round(NEW.grade), 0), 100) + 1;\n" +
+                    "            INSERT INTO assignment_stats AS s (assignment_id, grade_sum, grade_count, histogram,\n" +
+                    "                    grade_sq_sum, grade_counts)\n" +
+                    "            VALUES (NEW.assignment_id, NEW.grade, 1, array_fill(0::bigint, ARRAY[bucket - 1])\n" +
+                    "                    || 1::bigint || array_fill(0::bigint, ARRAY[11 - bucket]),\n" +
+                    "                    NEW.grade * NEW.grade, array_fill(0::bigint, ARRAY[exact - 1])\n" +
+                    "                    || 1::bigint || array_fill(0::bigint, ARRAY[101 - exact]))\n" +
+                    "            ON CONFLICT (assignment_id) DO UPDATE\n" +
+                    "                SET grade_sum = s.grade_sum + EXCLUDED.grade_sum,\n" +
+                    "                    grade_count = s.grade_count + 1,\n" +
+                    "                    histogram[bucket] = s.histogram[bucket] + 1,\n" +
+                    "                    grade_sq_sum = s.grade_sq_sum + EXCLUDED.grade_sq_sum,\n" +
+                    "                    grade_counts[exact] = s.grade_counts[exact] + 1;\n" +
+                    "        END IF;\n" +
+                    "        RETURN NULL;\n" +
+                    "    END $fn$;\n";
+
+    private static final String[] STATEMENTS = {
+            "CREATE TABLE IF NOT EXISTS submissions (" +
+                    "id BIGSERIAL PRIMARY KEY, " +
+                    "user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE, " +
+                    "assignment_id BIGINT NOT NULL REFERENCES assignments(id) ON DELETE CASCADE, " +
+                    "query TEXT NOT NULL, " +
+                    "submitted_at TIMESTAMPTZ NOT NULL DEFAULT now())",
+            "CREATE INDEX IF NOT EXISTS submissions_assignment_user_idx ON submissions (assignment_id, user_id)",
+            // Antrian grading: submission lama sudah dinilai langsung saat submit, jadi dianggap DONE
+            "ALTER TABLE submissions ADD COLUMN IF NOT EXISTS status TEXT NOT NULL DEFAULT 'DONE'",
+            "ALTER TABLE submissions ALTER COLUMN status SET DEFAULT 'PENDING'",
+            "ALTER TABLE submissions ADD COLUMN IF NOT EXISTS grade INT",
+            "ALTER TABLE submissions ADD COLUMN IF NOT EXISTS error TEXT",
+            "ALTER TABLE submissions ADD COLUMN IF NOT EXISTS graded_at TIMESTAMPTZ",
+            // Nilai per dataset grading, misalnya "default=100, hr_v1=0"
+            "ALTER TABLE submissions ADD COLUMN IF NOT EXISTS dataset_grades TEXT",
+            "CREATE INDEX IF NOT EXISTS submissions_pending_idx ON submissions (id) WHERE status = 'PENDING'",
+            // Submission yang sedang dinilai (GRADING), untuk mengembalikan klaim worker yang mati ke antrian
+            "ALTER TABLE submissions ADD COLUMN IF NOT EXISTS claimed_at TIMESTAMPTZ",
+            "CREATE INDEX IF NOT EXISTS submissions_grading_idx ON submissions (claimed_at) WHERE status = 'GRADING'",
+            // Heartbeat setiap proses yang menjalankan worker grading; submit ditolak jika tidak ada yang hidup
+            "CREATE TABLE IF NOT EXISTS grading_workers (" +
+                    "name TEXT PRIMARY KEY, " +
+                    "last_seen TIMESTAMPTZ NOT NULL DEFAULT now())",
+
+            // Login membaca id, role dan hash password berdasarkan username dalam satu lookup;
+            // (username, id) juga urutan keyset daftar mahasiswa di jendela admin
+            "CREATE INDEX IF NOT EXISTS users_username_id_idx ON users (username, id)",
+            // Tabel nilai per assignment di jendela admin dan anti-join mahasiswa yang belum dinilai
+            "CREATE INDEX IF NOT EXISTS grades_assignment_user_idx ON grades (assignment_id, user_id)",
+
+            // Versi daftar assignment untuk AssignmentCatalog; satu baris yang dinaikkan setiap
+            // INSERT/UPDATE/DELETE pada assignments (max(updated_at) tidak mendeteksi DELETE)
+            "CREATE TABLE IF NOT EXISTS assignment_catalog (" +
+                    "id BOOLEAN PRIMARY KEY DEFAULT true CHECK (id), " +
+                    "version BIGINT NOT NULL DEFAULT 0)",
+            "INSERT INTO assignment_catalog (id) VALUES (true) ON CONFLICT DO NOTHING",
+            "CREATE OR REPLACE FUNCTION assignments_bump_catalog_version() RETURNS trigger " +
+                    "LANGUAGE plpgsql AS $$\n" +
+                    "BEGIN\n" +
+                    "    UPDATE assignment_catalog SET version = version + 1;\n" +
+                    "    RETURN NULL;\n" +
+                    "END $$",
+            "CREATE OR REPLACE TRIGGER assignments_catalog_version " +
+                    "AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON assignments " +
+                    "FOR EACH STATEMENT EXECUTE FUNCTION assignments_bump_catalog_version()",
+
+            // Fungsi trigger statistik dan kolom sebaran nilai untuk assignment_stats yang dibuat versi
+            // sebelumnya, dalam satu transaksi di bawah lock grades: tidak ada perubahan nilai yang
+            // dihitung fungsi lama setelah pengisian awal, atau fungsi baru sebelum kolomnya ada
+            "DO $$\n" +
+                    "BEGIN\n" +
+                    "    LOCK TABLE grades IN SHARE ROW EXCLUSIVE MODE;\n" +
+                    UPDATE_ASSIGNMENT_STATS_FUNCTION +
+                    "    IF to_regclass('assignment_stats') IS NOT NULL THEN\n" +
+                    "        IF NOT EXISTS (SELECT 1 FROM pg_attribute WHERE attrelid = 'assignment_stats'::regclass\n" +
+                    "                AND attname = 'grade_counts' AND NOT attisdropped) THEN\n" +
+                    "            ALTER TABLE assignment_stats ADD COLUMN IF NOT EXISTS grade_sq_sum NUMERIC NOT NULL DEFAULT 0,\n" +
+                    "                ADD COLUMN IF NOT EXISTS grade_counts BIGINT[] NOT NULL\n" +
+                    "                    DEFAULT array_fill(0::bigint, ARRAY[101]);\n" +
+                    BACKFILL_GRADE_COUNTS +
+                    "        END IF;\n" +
+                    "    END IF;\n" +
+                    "END $$",
+
+            "CREATE OR REPLACE FUNCTION users_update_role_counts() RETURNS trigger " +
+                    "LANGUAGE plpgsql AS $$\n" +
+                    "BEGIN\n" +
+                    "    IF TG_OP = 'UPDATE' AND OLD.role IS NOT DISTINCT FROM NEW.role THEN\n" +
+                    "        RETURN NULL;\n" +
+                    "    END IF;\n" +
+                    "    IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.role IS NOT NULL THEN\n" +
+                    "        UPDATE user_role_counts SET user_count = user_count - 1 WHERE role = OLD.role;\n" +
+                    "    END IF;\n" +
+                    "    IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.role IS NOT NULL THEN\n" +
+                    "        INSERT INTO user_role_counts AS r (role, user_count) VALUES (NEW.role, 1)\n" +
+                    "        ON CONFLICT (role) DO UPDATE SET user_count = r.user_count + 1;\n" +
+                    "    END IF;\n" +
+                    "    RETURN NULL;\n" +
+                    "END $$",
+            // NOTIFY untuk jendela admin yang terbuka (lihat GradeChangeListener);
+            // payload: operasi,assignment_id,user_id,nilai_lama,nilai_baru,username
+            "CREATE OR REPLACE FUNCTION grades_notify_change() RETURNS trigger " +
+                    "LANGUAGE plpgsql AS $$\n" +
+                    "BEGIN\n" +
+                    "    IF TG_OP = 'UPDATE' AND OLD.grade IS NOT DISTINCT FROM NEW.grade THEN\n" +
+                    "        RETURN NULL;\n" +
+                    "    END IF;\n" +
+                    "    IF TG_OP = 'DELETE' THEN\n" +
+                    "        PERFORM pg_notify('grades_changed', format('%s,%s,%s,%s,,%s', TG_OP,\n" +
+                    "            OLD.assignment_id, OLD.user_id, OLD.grade,\n" +
+                    "            (SELECT username FROM users WHERE id = OLD.user_id)));\n" +
+                    "    ELSE\n" +
+                    "        PERFORM pg_notify('grades_changed', format('%s,%s,%s,%s,%s,%s', TG_OP,\n" +
+                    "            NEW.assignment_id, NEW.user_id, CASE WHEN TG_OP = 'UPDATE' THEN OLD.grade END,\n" +
+                    "            NEW.grade, (SELECT username FROM users WHERE id = NEW.user_id)));\n" +
+                    "    END IF;\n" +
+                    "    RETURN NULL;\n" +
+                    "END $$",
+            "CREATE OR REPLACE TRIGGER grades_notify AFTER INSERT OR UPDATE OR DELETE ON grades " +
+                    "FOR EACH ROW EXECUTE FUNCTION grades_notify_change()",
+            // Tabel, trigger dan pengisian awal dalam satu transaksi, hanya saat tabel belum ada.
+            // LOCK menahan perubahan grades/users selama pengisian awal; instance aplikasi lain
+            // yang mulai bersamaan menunggu lock lalu melihat tabel sudah dibuat.
+            "DO $$\n" +
+                    "BEGIN\n" +
+                    "    IF to_regclass('assignment_stats') IS NULL THEN\n" +
+                    "        LOCK TABLE grades IN SHARE ROW EXCLUSIVE MODE;\n" +
+                    "    END IF;\n" +
+                    "    IF to_regclass('assignment_stats') IS NULL THEN\n" +
+                    "        CREATE TABLE assignment_stats (\n" +
+                    "            assignment_id BIGINT PRIMARY KEY REFERENCES assignments(id) ON DELETE CASCADE,\n" +
+                    "            grade_sum NUMERIC NOT NULL DEFAULT 0,\n" +
+                    "            grade_count BIGINT NOT NULL DEFAULT 0,\n" +
+                    "            histogram BIGINT[] NOT NULL DEFAULT array_fill(0::bigint, ARRAY[11]),\n" +
+                    "            grade_sq_sum NUMERIC NOT NULL DEFAULT 0,\n" +
+                    "            grade_counts BIGINT[] NOT NULL DEFAULT array_fill(0::bigint, ARRAY[101]));\n" +
+                    "        CREATE TRIGGER grades_assignment_stats AFTER INSERT OR UPDATE OR DELETE ON grades\n" +
+                    "            FOR EACH ROW EXECUTE FUNCTION grades_update_assignment_stats();\n" +
+                    "        INSERT INTO assignment_stats (assignment_id, grade_sum, grade_count, histogram)\n" +
+                    "        SELECT assignment_id, sum(grade), count(*),\n" +
+                    "               ARRAY(SELECT count(g2.grade) FROM generate_series(0, 10) b\n" +
+                    "                       LEFT JOIN grades g2 ON g2.assignment_id = g.assignment_id\n" +
+                    "                            AND least(greatest(floor(g2.grade / 10), 0), 10) = b\n" +
+                    "                      GROUP BY b ORDER BY b)\n" +
+                    "          FROM grades g WHERE grade IS NOT NULL GROUP BY assignment_id;\n" +
+                    BACKFILL_GRADE_COUNTS +
+                    "    END IF;\n" +
+                    "    IF to_regclass('user_role_counts') IS NULL THEN\n" +
+                    "        LOCK TABLE users IN SHARE ROW EXCLUSIVE MODE;\n" +
+                    "    END IF;\n" +
+                    "    IF to_regclass('user_role_counts') IS NULL THEN\n" +
+                    "        CREATE TABLE user_role_counts (role TEXT PRIMARY KEY, user_count BIGINT NOT NULL);\n" +
+                    "        CREATE TRIGGER users_role_counts AFTER INSERT OR UPDATE OF role OR DELETE ON users\n" +
+                    "            FOR EACH ROW EXECUTE FUNCTION users_update_role_counts();\n" +
+                    "        INSERT INTO user_role_counts (role, user_count)\n" +
+                    "        SELECT role, count(*) FROM users WHERE role IS NOT NULL GROUP BY role;\n" +
+                    "    END IF;\n" +
+                    "END $$",
+    };
+
+    private static volatile boolean created;
+
+    private Schema() {
+    }
+
+    static boolean isCreated() {
+        return created;
+    }
+
+    public static void ensureCreated(Connection c) throws SQLException {
+        if (created) return;
+        synchronized (Schema.class) {
+            if (created) return;
+            int installed = installedVersion(c);
+            if (installed < VERSION) {
+                try (Statement stmt = c.createStatement()) {
+                    for (String sql : STATEMENTS) {
+                        stmt.execute(sql);
+                    }
+                    stmt.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                            "id BOOLEAN PRIMARY KEY DEFAULT true CHECK (id), version INT NOT NULL)");
+                    stmt.execute("INSERT INTO schema_version (version) VALUES (" + VERSION + ") " +
+                            "ON CONFLICT (id) DO UPDATE SET version = greatest(schema_version.version, EXCLUDED.version)");
+                } catch (SQLException e) {
+                    // 42501: user database (misalnya akun mahasiswa) tidak punya hak DDL
+                    if (!"42501".equals(e.getSQLState())) throw e;
+                    throw new SQLException("Database schema is at version " + installed + ", this application needs "
+                            + VERSION + "; start the admin application or GradingWorkerCli once to upgrade it", e);
+                }
+            }
+            created = true;
+        }
+    }
+
+    /** 0 jika tabel schema_version belum ada (database baru atau dibuat versi sebelumnya). */
+    private static int installedVersion(Connection c) throws SQLException {
+        try (Statement stmt = c.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT to_regclass('schema_version') IS NOT NULL")) {
+                rs.next();
+                if (!rs.getBoolean(1)) return 0;
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT max(version) FROM schema_version")) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+}
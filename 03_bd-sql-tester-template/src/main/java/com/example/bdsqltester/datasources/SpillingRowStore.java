@@ -0,0 +1,205 @@
+package com.example.bdsqltester.datasources;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Penyimpanan baris hasil query untuk jendela "Test". Baris pertama disimpan di heap; setelah
+ * melewati spillThreshold semua baris dipindahkan ke file sementara yang di-memory-map, jadi hasil
+ * jutaan baris tetap bisa digulir dengan pemakaian heap yang tetap. Baris dibaca per indeks (hanya
+ * baris yang terlihat di TableView), dengan cache kecil untuk baris yang baru dibaca.
+ *
+ * Format file data per baris: jumlah kolom (int), lalu per nilai panjang byte UTF-8 (int, -1 untuk
+ * null) diikuti byte-nya. File index berisi posisi awal setiap baris (long). File dihapus saat close.
+ *
+ * Thread-safe: baris ditambahkan di thread database sementara JavaFX Application Thread membacanya.
+ */
+public final class SpillingRowStore implements AutoCloseable {
+    private static final int DATA_SEGMENT_BYTES = 64 * 1024 * 1024;
+    private static final int INDEX_SEGMENT_ROWS = 1 << 20;
+    private static final int CACHE_ROWS = 1024;
+
+    private final int spillThreshold;
+    private List<List<String>> heapRows = new ArrayList<>();
+    private int size;
+    private boolean closed;
+
+    private Path dataFile;
+    private Path indexFile;
+    private FileChannel dataChannel;
+    private FileChannel indexChannel;
+    // Segmen data bisa tumpang tindih di file: segmen baru dimulai di akhir baris terakhir,
+    // jadi baris ada di segmen terakhir yang awalnya <= posisi baris
+    private final List<MappedByteBuffer> dataSegments = new ArrayList<>();
+    private long[] segmentStarts = new long[8];
+    private final List<MappedByteBuffer> indexSegments = new ArrayList<>();
+    private long dataEnd;
+
+    private final Map<Integer, List<String>> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<String>> eldest) {
+            return size() > CACHE_ROWS;
+        }
+    };
+
+    public SpillingRowStore(int spillThreshold) {
+        this.spillThreshold = Math.max(spillThreshold, 0);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /** true jika baris sudah dipindahkan ke file sementara. */
+    public synchronized boolean isSpilled() {
+        return heapRows == null;
+    }
+
+    public synchronized void append(List<String> row) {
+        if (closed) throw new IllegalStateException("Row store is closed");
+        try {
+            if (heapRows != null && size >= spillThreshold) spill();
+            if (heapRows != null) {
+                heapRows.add(row);
+            } else {
+                write(row);
+            }
+            size++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spill query results to disk", e);
+        }
+    }
+
+    public synchronized List<String> get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+        if (heapRows != null) return heapRows.get(index);
+        if (closed) throw new IllegalStateException("Row store is closed");
+        return cache.computeIfAbsent(index, this::read);
+    }
+
+    private void spill() throws IOException {
+        dataFile = Files.createTempFile("bdsql-result-", ".rows");
+        indexFile = Files.createTempFile("bdsql-result-", ".idx");
+        dataChannel = FileChannel.open(dataFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        indexChannel = FileChannel.open(indexFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        List<List<String>> rows = heapRows;
+        heapRows = null;
+        size = 0;
+        for (List<String> row : rows) {
+            write(row);
+            size++;
+        }
+    }
+
+    private void write(List<String> row) throws IOException {
+        byte[][] values = new byte[row.size()][];
+        long length = 4;
+        for (int i = 0; i < values.length; i++) {
+            String value = row.get(i);
+            values[i] = value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+            length += 4 + (values[i] != null ? values[i].length : 0);
+        }
+        if (length > Integer.MAX_VALUE) throw new IOException("Row too large: " + length + " bytes");
+
+        MappedByteBuffer segment = dataSegments.isEmpty() ? null : dataSegments.get(dataSegments.size() - 1);
+        long segmentStart = dataSegments.isEmpty() ? 0 : segmentStarts[dataSegments.size() - 1];
+        if (segment == null || dataEnd + length > segmentStart + segment.capacity()) {
+            int segmentBytes = (int) Math.max(DATA_SEGMENT_BYTES, length);
+            segment = dataChannel.map(FileChannel.MapMode.READ_WRITE, dataEnd, segmentBytes);
+            if (dataSegments.size() == segmentStarts.length) {
+                segmentStarts = Arrays.copyOf(segmentStarts, segmentStarts.length * 2);
+            }
+            segmentStarts[dataSegments.size()] = dataEnd;
+            dataSegments.add(segment);
+            segmentStart = dataEnd;
+        }
+
+        int position = (int) (dataEnd - segmentStart);
+        segment.putInt(position, values.length);
+        position += 4;
+        for (byte[] value : values) {
+            segment.putInt(position, value != null ? value.length : -1);
+            position += 4;
+            if (value != null) {
+                segment.put(position, value);
+                position += value.length;
+            }
+        }
+
+        int indexSegment = size / INDEX_SEGMENT_ROWS;
+        if (indexSegment == indexSegments.size()) {
+            indexSegments.add(indexChannel.map(FileChannel.MapMode.READ_WRITE,
+                    (long) indexSegment * INDEX_SEGMENT_ROWS * Long.BYTES, (long) INDEX_SEGMENT_ROWS * Long.BYTES));
+        }
+        indexSegments.get(indexSegment).putLong((size % INDEX_SEGMENT_ROWS) * Long.BYTES, dataEnd);
+        dataEnd += length;
+    }
+
+    private List<String> read(int index) {
+        long offset = indexSegments.get(index / INDEX_SEGMENT_ROWS).getLong((index % INDEX_SEGMENT_ROWS) * Long.BYTES);
+        int segmentIndex = Arrays.binarySearch(segmentStarts, 0, dataSegments.size(), offset);
+        if (segmentIndex < 0) segmentIndex = -segmentIndex - 2;
+        MappedByteBuffer segment = dataSegments.get(segmentIndex);
+
+        int position = (int) (offset - segmentStarts[segmentIndex]);
+        String[] values = new String[segment.getInt(position)];
+        position += 4;
+        for (int i = 0; i < values.length; i++) {
+            int length = segment.getInt(position);
+            position += 4;
+            if (length >= 0) {
+                byte[] bytes = new byte[length];
+                segment.get(position, bytes);
+                values[i] = new String(bytes, StandardCharsets.UTF_8);
+                position += length;
+            }
+        }
+        return Collections.unmodifiableList(Arrays.asList(values));
+    }
+
+    /** Melepas baris dan menghapus file sementara; aman dipanggil lebih dari sekali. */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        heapRows = null;
+        cache.clear();
+        dataSegments.clear();
+        indexSegments.clear();
+        closeQuietly(dataChannel);
+        closeQuietly(indexChannel);
+        delete(dataFile);
+        delete(indexFile);
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static void delete(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Di Windows file yang masih di-map belum bisa dihapus sampai buffer di-GC
+            file.toFile().deleteOnExit();
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.bdsqltester.datasources;
+
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface SqlSupplier<T> {
+    T get() throws SQLException;
+}
@@ -0,0 +1,42 @@
+package com.example.bdsqltester.datasources;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Mencatat waktu sejak aplikasi dijalankan sampai frame pertama tampil
+ * dan sampai query pertama ke database utama berhasil.
+ */
+public final class StartupTimer {
+    private static final Logger log = LoggerFactory.getLogger(StartupTimer.class);
+
+    private static final long launchNanos = System.nanoTime();
+    private static final AtomicBoolean firstFrameLogged = new AtomicBoolean();
+    private static final AtomicBoolean firstQueryLogged = new AtomicBoolean();
+
+    private StartupTimer() {
+    }
+
+    /** Dipanggil paling awal di main() supaya titik nol diukur dari sana. */
+    public static void start() {
+        log.debug("Startup timer started");
+    }
+
+    public static long elapsedMillis() {
+        return (System.nanoTime() - launchNanos) / 1_000_000;
+    }
+
+    public static void firstFrame() {
+        if (firstFrameLogged.compareAndSet(false, true)) {
+            log.info("Time to first frame: {} ms", elapsedMillis());
+        }
+    }
+
+    static void firstQuery() {
+        if (firstQueryLogged.compareAndSet(false, true)) {
+            log.info("Time to first query: {} ms", elapsedMillis());
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.bdsqltester.datasources;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public final class SubmissionRepository {
+
+    /** Worker dianggap mati jika heartbeat-nya lebih lama dari ini; worker mengirim heartbeat tiap 10 detik. */
+    public static final long WORKER_TIMEOUT_MILLIS = 30_000;
+
+    private SubmissionRepository() {
+    }
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_DONE = "DONE";
+    /** Penilaian gagal karena error di aplikasi; pesan error disimpan di kolom error. */
+    public static final String STATUS_FAILED = "FAILED";
+
+    /** Menyimpan submission dengan status PENDING dan mengembalikan id-nya. */
+    public static long save(Connection c, long userId, long assignmentId, String query) throws SQLException {
+        String sql = "INSERT INTO submissions (user_id, assignment_id, query) VALUES (?, ?, ?) RETURNING id";
+        try (PreparedStatement stmt = c.prepareStatement(sql)) {
+            stmt.setLong(1, userId);
+            stmt.setLong(2, assignmentId);
+            stmt.setString(3, query);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    /**
+     * Menyimpan submission untuk dinilai worker. Gagal jika tidak ada worker grading yang hidup
+     * (lihat {@link #heartbeat}), supaya mahasiswa tidak menunggu nilai yang tidak akan datang.
+     */
+    public static CompletableFuture<Long> submit(long userId, long assignmentId, String query) {
+        return DatabaseExecutor.supplyAsync(() -> {
+            try (Connection c = MainDataSource.getConnection()) {
+                if (!hasLiveWorker(c)) {
+                    throw new SQLException("No grader is running, so this answer was not submitted. "
+                            + "Ask the administrator to start grading (grading.workers or GradingWorkerCli).");
+                }
+                return save(c, userId, assignmentId, query);
+            }
+        });
+    }
+
+    /** Menandai bahwa proses worker grading ini masih hidup; dipanggil worker secara berkala. */
+    public static void heartbeat(Connection c, String workerName) throws SQLException {
+        String sql = "INSERT INTO grading_workers (name, last_seen) VALUES (?, now()) " +
+                "ON CONFLICT (name) DO UPDATE SET last_seen = now()";
+        try (PreparedStatement stmt = c.prepareStatement(sql)) {
+            stmt.setString(1, workerName);
+            stmt.executeUpdate();
+        }
+    }
+
+    private static boolean hasLiveWorker(Connection c) throws SQLException {
+        String sql = "SELECT EXISTS (SELECT 1 FROM grading_workers " +
+                "WHERE last_seen > now() - ? * interval '1 millisecond')";
+        try (PreparedStatement stmt = c.prepareStatement(sql)) {
+            stmt.setLong(1, WORKER_TIMEOUT_MILLIS);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getBoolean(1);
+            }
+        }
+    }
+
+    /**
+     * Mengambil satu submission PENDING dan menandainya GRADING dalam satu statement, jadi tidak ada
+     * transaksi atau lock baris yang ditahan selama penilaian. Worker lain melewati baris yang sedang
+     * diambil (SKIP LOCKED). Jika worker mati sebelum selesai, {@link #requeueStale} mengembalikannya.
+     */
+    public static PendingSubmission claimNext(Connection c) throws SQLException {
+        String sql = "UPDATE submissions SET status = 'GRADING', claimed_at = now() " +
+                "WHERE id = (SELECT id FROM submissions WHERE status = 'PENDING' " +
+                "ORDER BY id LIMIT 1 FOR UPDATE SKIP LOCKED) " +
+                "RETURNING id, user_id, assignment_id, query";
+        try (PreparedStatement stmt = c.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            if (!rs.next()) return null;
+            return new PendingSubmission(rs.getLong("id"), rs.getLong("user_id"), rs.getLong("assignment_id"),
+                    rs.getString("query"));
+        }
+    }
+
+    /** Mengembalikan submission GRADING yang diambil lebih dari timeoutMillis lalu ke antrian. */
+    public static int requeueStale(Connection c, long timeoutMillis) throws SQLException {
+        String sql = "UPDATE submissions SET status = 'PENDING', claimed_at = NULL " +
+                "WHERE status = 'GRADING' AND claimed_at < now() - ? * interval '1 millisecond'";
+        try (PreparedStatement stmt = c.prepareStatement(sql)) {
+            stmt.setLong(1, timeoutMillis);
+            return stmt.executeUpdate();
+        }
+    }
+
+    /** Mengembalikan submission yang belum selesai dinilai ke antrian, misalnya saat database grading mati. */
+    public static void release(Connection c, long submissionId) throws SQLException {
+        String sql = "UPDATE submissions SET status = 'PENDING', claimed_at = NULL WHERE id = ? AND status = 'GRADING'";
+        try (PreparedStatement stmt = c.prepareStatement(sql)) {
+            stmt.setLong(1, submissionId);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * datasetGrades: nilai per dataset grading, null jika hanya ada dataset utama.
+     * False jika submission sudah tidak GRADING (dinilai worker lain setelah dikembalikan ke antrian).
+     */
+    public static boolean markGraded(Connection c, long submissionId, int grade, String error, String datasetGrades)
+            throws SQLException {
+        String sql = "UPDATE submissions SET status = 'DONE', grade = ?, error = ?, dataset_grades = ?, " +
+                "graded_at = now() WHERE id = ? AND status = 'GRADING'";
+        try (PreparedStatement stmt = c.prepareStatement(sql)) {
+            stmt.setInt(1, grade);
+            stmt.setString(2, error);
+            stmt.setString(3, datasetGrades);
+            stmt.setLong(4, submissionId);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    public static void markFailed(Connection c, long submissionId, String error) throws SQLException {
+        String sql = "UPDATE submissions SET status = 'FAILED', error = ?, graded_at = now() " +
+                "WHERE id = ? AND status = 'GRADING'";
+        try (PreparedStatement stmt = c.prepareStatement(sql)) {
+            stmt.setString(1, error);
+            stmt.setLong(2, submissionId);
+            stmt.executeUpdate();
+        }
+    }
+
+    public static CompletableFuture<SubmissionStatus> findStatus(long submissionId) {
+        return DatabaseExecutor.supplyAsync(() -> {
+            String sql = "SELECT status, grade, error, dataset_grades FROM submissions WHERE id = ?";
+            try (Connection c = MainDataSource.getConnection();
+                 PreparedStatement stmt = c.prepareStatement(sql)) {
+                stmt.setLong(1, submissionId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) return null;
+                    int grade = rs.getInt("grade");
+                    return new SubmissionStatus(rs.getString("status"), rs.wasNull() ? null : grade, rs.getString("error"),
+                            rs.getString("dataset_grades"));
+                }
+            }
+        });
+    }
+
+    /** Semua query berbeda yang pernah dikirim untuk assignment, satu baris per (user, query). */
+    /** Id submission terbaru untuk assignment (0 jika belum ada); batas snapshot re-grade. */
+    public static long findLatestId(long assignmentId) throws SQLException {
+        String sql = "SELECT coalesce(max(id), 0) FROM submissions WHERE assignment_id = ?";
+        try (Connection c = MainDataSource.getConnection();
+             PreparedStatement stmt = c.prepareStatement(sql)) {
+            stmt.setLong(1, assignmentId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    public static List<StoredSubmission> findDistinctByAssignment(long assignmentId) throws SQLException {
+        List<StoredSubmission> submissions = new ArrayList<>();
+        String sql = "SELECT DISTINCT user_id, query FROM submissions WHERE assignment_id = ?";
+        try (Connection c = MainDataSource.getConnection();
+             PreparedStatement stmt = c.prepareStatement(sql)) {
+            stmt.setLong(1, assignmentId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    submissions.add(new StoredSubmission(rs.getLong("user_id"), rs.getString("query")));
+                }
+            }
+        }
+        return submissions;
+    }
+
+    public static class StoredSubmission {
+        public final long userId;
+        public final String query;
+
+        public StoredSubmission(long userId, String query) {
+            this.userId = userId;
+            this.query = query;
+        }
+    }
+
+    public static class PendingSubmission {
+        public final long id;
+        public final long userId;
+        public final long assignmentId;
+        public final String query;
+
+        public PendingSubmission(long id, long userId, long assignmentId, String query) {
+            this.id = id;
+            this.userId = userId;
+            this.assignmentId = assignmentId;
+            this.query = query;
+        }
+    }
+
+    public static class SubmissionStatus {
+        public final String status;
+        public final Integer grade;
+        public final String error;
+        public final String datasetGrades;
+
+        public SubmissionStatus(String status, Integer grade, String error, String datasetGrades) {
+            this.status = status;
+            this.grade = grade;
+            this.error = error;
+            this.datasetGrades = datasetGrades;
+        }
+
+        /** True jika penilaian sudah selesai, berhasil atau gagal. */
+        public boolean isDone() {
+            return STATUS_DONE.equals(status) || isFailed();
+        }
+
+        public boolean isFailed() {
+            return STATUS_FAILED.equals(status);
+        }
+
+        /** True jika belum diambil worker mana pun. */
+        public boolean isPending() {
+            return STATUS_PENDING.equals(status);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.bdsqltester.datasources;
+
+import com.example.bdsqltester.dtos.User;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public final class UserRepository {
+
+    private UserRepository() {
+    }
+
+    /** Id, role dan hash password dalam satu query (memakai index users_username_id_idx), atau null. */
+    public static Credentials findCredentials(String username) throws SQLException {
+        try (Connection c = MainDataSource.getConnection();
+             PreparedStatement stmt = c.prepareStatement("SELECT id, role, password FROM users WHERE username = ?")) {
+            stmt.setString(1, username);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? new Credentials(rs.getLong("id"), rs.getString("role"), rs.getString("password")) : null;
+            }
+        }
+    }
+
+    /** Mengganti hash hanya jika nilai lama belum diubah di tempat lain. */
+    public static CompletableFuture<Boolean> replacePasswordHash(long userId, String oldHash, String newHash) {
+        return DatabaseExecutor.supplyAsync(() -> {
+            try (Connection c = MainDataSource.getConnection();
+                 PreparedStatement stmt = c.prepareStatement("UPDATE users SET password = ? WHERE id = ? AND password = ?")) {
+                stmt.setString(1, newHash);
+                stmt.setLong(2, userId);
+                stmt.setString(3, oldHash);
+                return stmt.executeUpdate() > 0;
+            }
+        });
+    }
+
+    /** Membuat user yang belum ada dengan hash password yang sama; mengembalikan jumlah user baru. */
+    public static CompletableFuture<Integer> createMissing(List<String> usernames, String role, String passwordHash) {
+        return DatabaseExecutor.supplyAsync(() -> {
+            String sql = "INSERT INTO users (username, password, role) " +
+                    "SELECT u, ?, ? FROM unnest(?::text[]) u " +
+                    "WHERE NOT EXISTS (SELECT 1 FROM users WHERE username = u)";
+            try (Connection c = MainDataSource.getConnection();
+                 PreparedStatement stmt = c.prepareStatement(sql)) {
+                stmt.setString(1, passwordHash);
+                stmt.setString(2, role);
+                stmt.setArray(3, c.createArrayOf("text", usernames.toArray()));
+                return stmt.executeUpdate();
+            }
+        });
+    }
+
+    /** Urutan daftar mahasiswa; setiap urutan diakhiri kolom unik supaya bisa dipakai sebagai keyset. */
+    public enum UserSort {
+        ID("u.id"),
+        USERNAME("u.username", "u.id");
+
+        private final String[] columns;
+
+        UserSort(String... columns) {
+            this.columns = columns;
+        }
+    }
+
+    /**
+     * Satu halaman mahasiswa yang belum punya nilai untuk assignment. Anti-join NOT EXISTS
+     * (bukan NOT IN, yang tidak bisa direncanakan sebagai hash/merge anti-join dan salah jika ada NULL).
+     * after adalah baris terakhir halaman sebelumnya (null untuk halaman pertama).
+     */
+    public static CompletableFuture<List<User>> findStudentsWithoutGrade(long assignmentId, String filter, UserSort sort,
+                                                                         boolean descending, User after, int limit) {
+        return DatabaseExecutor.supplyAsync(() -> {
+            List<User> students = new ArrayList<>();
+            StringBuilder sql = new StringBuilder("SELECT u.id, u.username FROM users u " +
+                    "WHERE u.role = 'student' AND NOT EXISTS " +
+                    "(SELECT 1 FROM grades g WHERE g.assignment_id = ? AND g.user_id = u.id)");
+            boolean filtered = filter != null && !filter.isBlank();
+            if (filtered) sql.append(" AND u.username ILIKE ?");
+            if (after != null) sql.append(Keyset.after(sort.columns, descending));
+            sql.append(Keyset.orderBy(sort.columns, descending)).append(" LIMIT ?");
+
+            try (Connection c = MainDataSource.getReadConnection();
+                 PreparedStatement stmt = c.prepareStatement(sql.toString())) {
+                int index = 1;
+                stmt.setLong(index++, assignmentId);
+                if (filtered) stmt.setString(index++, Keyset.containsPattern(filter.trim()));
+                if (after != null) {
+                    if (sort == UserSort.USERNAME) stmt.setString(index++, after.getUsername());
+                    stmt.setLong(index++, after.getId());
+                }
+                stmt.setInt(index, limit);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        User user = new User();
+                        user.setId(rs.getLong("id"));
+                        user.setUsername(rs.getString("username"));
+                        students.add(user);
+                    }
+                }
+            }
+            return students;
+        });
+    }
+
+    public static class Credentials {
+        public final long id;
+        public final String role;
+        public final String passwordHash;
+
+        public Credentials(long id, String role, String passwordHash) {
+            this.id = id;
+            this.role = role;
+            this.passwordHash = passwordHash;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.bdsqltester.dtos;
+
+/**
+ * Statistik nilai satu assignment dari tabel assignment_stats.
+ * histogram[i] = jumlah nilai di rentang i*10 .. i*10+9, histogram[10] = jumlah nilai 100.
+ * gradeCounts[g] = jumlah nilai g (dibulatkan) untuk g = 0..100; karena nilai berupa bilangan bulat,
+ * median dan persentil dari array ini tepat, dan array dua assignment bisa dijumlahkan langsung.
+ */
+public class AssignmentStatistics {
+    public static final int BUCKETS = 11;
+    public static final int GRADE_VALUES = 101;
+
+    public final long assignmentId;
+    public final String assignmentName;
+    public final double gradeSum;
+    public final long completedCount;
+    public final long totalStudents;
+    public final long[] histogram;
+    public final double gradeSquareSum;
+    public final long[] gradeCounts;
+
+    public AssignmentStatistics(long assignmentId, String assignmentName, double gradeSum,
+                                long completedCount, long totalStudents, long[] histogram,
+                                double gradeSquareSum, long[] gradeCounts) {
+        this.assignmentId = assignmentId;
+        this.assignmentName = assignmentName;
+        this.gradeSum = gradeSum;
+        this.completedCount = completedCount;
+        this.totalStudents = totalStudents;
+        this.histogram = histogram;
+        this.gradeSquareSum = gradeSquareSum;
+        this.gradeCounts = gradeCounts;
+    }
+
+    public double getAverageGrade() {
+        return completedCount > 0 ? gradeSum / completedCount : 0;
+    }
+
+    /** Simpangan baku populasi dari jumlah dan jumlah kuadrat nilai. */
+    public double getStandardDeviation() {
+        if (completedCount == 0) return 0;
+        double mean = getAverageGrade();
+        return Math.sqrt(Math.max(gradeSquareSum / completedCount - mean * mean, 0));
+    }
+
+    /** Persentil (0-100) dengan metode nearest-rank, atau 0 jika belum ada nilai. */
+    public int getPercentile(double percentile) {
+        long total = 0;
+        for (long count : gradeCounts) total += count;
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int grade = 0; grade < gradeCounts.length; grade++) {
+            seen += gradeCounts[grade];
+            if (seen >= rank) return grade;
+        }
+        return gradeCounts.length - 1;
+    }
+
+    public int getMedian() {
+        return getPercentile(50);
+    }
+
+    /** Label rentang nilai untuk bucket histogram, misalnya "70-79". */
+    public static String bucketLabel(int bucket) {
+        return bucket == BUCKETS - 1 ? "100" : (bucket * 10) + "-" + (bucket * 10 + 9);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.bdsqltester.grading;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Cache LRU berisi fingerprint hasil kunci jawaban per assignment.
+ *
+ * Key cache memuat id assignment, teks kunci jawaban dan versi skema grading,
+ * jadi perubahan kunci jawaban dari instance aplikasi lain tetap terdeteksi.
+ * Ukuran cache dibatasi oleh total byte fingerprint yang disimpan.
+ * Kunci jawaban yang hasilnya lebih dari maxRowsPerEntry baris hanya ditandai
+ * (lihat {@link #markOversize}), supaya tidak dijalankan dua kali setiap submit.
+ */
+public final class AnswerKeyCache {
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+    public static final int DEFAULT_MAX_ROWS_PER_ENTRY = 1_000_000;
+
+    private static final LinkedHashMap<CacheKey, AnswerKeyFingerprint> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private static final Set<CacheKey> oversize = new HashSet<>();
+    private static long maxBytes = DEFAULT_MAX_BYTES;
+    private static int maxRowsPerEntry = DEFAULT_MAX_ROWS_PER_ENTRY;
+    private static long currentBytes;
+    private static long schemaVersion;
+
+    private static long hits;
+    private static long misses;
+    private static long evictions;
+
+    private AnswerKeyCache() {
+    }
+
+    public static synchronized AnswerKeyFingerprint get(long assignmentId, String answerKey) {
+        AnswerKeyFingerprint fingerprint = entries.get(new CacheKey(assignmentId, answerKey, schemaVersion));
+        if (fingerprint != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return fingerprint;
+    }
+
+    public static synchronized void put(long assignmentId, String answerKey, AnswerKeyFingerprint fingerprint) {
+        if (fingerprint.sizeInBytes() > maxBytes) return;
+
+        AnswerKeyFingerprint previous = entries.put(new CacheKey(assignmentId, answerKey, schemaVersion), fingerprint);
+        if (previous != null) currentBytes -= previous.sizeInBytes();
+        currentBytes += fingerprint.sizeInBytes();
+
+        Iterator<AnswerKeyFingerprint> eldest = entries.values().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            currentBytes -= eldest.next().sizeInBytes();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /** Menandai kunci jawaban yang hasilnya terlalu besar untuk di-cache; dinilai secara streaming. */
+    public static synchronized void markOversize(long assignmentId, String answerKey) {
+        oversize.add(new CacheKey(assignmentId, answerKey, schemaVersion));
+    }
+
+    public static synchronized boolean isOversize(long assignmentId, String answerKey) {
+        return oversize.contains(new CacheKey(assignmentId, answerKey, schemaVersion));
+    }
+
+    /** Dipanggil saat assignment disimpan atau dihapus oleh admin. */
+    public static synchronized void invalidate(long assignmentId) {
+        oversize.removeIf(key -> key.assignmentId == assignmentId);
+        Iterator<Map.Entry<CacheKey, AnswerKeyFingerprint>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<CacheKey, AnswerKeyFingerprint> entry = it.next();
+            if (entry.getKey().assignmentId == assignmentId) {
+                currentBytes -= entry.getValue().sizeInBytes();
+                it.remove();
+            }
+        }
+    }
+
+    /** Dipanggil saat isi database grading berubah; semua fingerprint lama tidak berlaku lagi. */
+    public static synchronized void bumpSchemaVersion() {
+        schemaVersion++;
+        entries.clear();
+        oversize.clear();
+        currentBytes = 0;
+    }
+
+    public static synchronized long getSchemaVersion() {
+        return schemaVersion;
+    }
+
+    public static synchronized void setMaxBytes(long maxBytes) {
+        AnswerKeyCache.maxBytes = maxBytes;
+    }
+
+    public static synchronized int getMaxRowsPerEntry() {
+        return maxRowsPerEntry;
+    }
+
+    public static synchronized void setMaxRowsPerEntry(int maxRowsPerEntry) {
+        AnswerKeyCache.maxRowsPerEntry = maxRowsPerEntry;
+        oversize.clear();
+    }
+
+    public static synchronized long getHits() {
+        return hits;
+    }
+
+    public static synchronized long getMisses() {
+        return misses;
+    }
+
+    public static synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public static synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public static synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+    private static final class CacheKey {
+        private final long assignmentId;
+        private final String answerKey;
+        private final long schemaVersion;
+
+        CacheKey(long assignmentId, String answerKey, long schemaVersion) {
+            this.assignmentId = assignmentId;
+            this.answerKey = answerKey;
+            this.schemaVersion = schemaVersion;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CacheKey)) return false;
+            CacheKey other = (CacheKey) o;
+            return assignmentId == other.assignmentId
+                    && schemaVersion == other.schemaVersion
+                    && Objects.equals(answerKey, other.answerKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(assignmentId, answerKey, schemaVersion);
+        }
+    }
+}
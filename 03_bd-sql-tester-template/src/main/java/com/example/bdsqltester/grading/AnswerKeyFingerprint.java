@@ -0,0 +1,53 @@
+package com.example.bdsqltester.grading;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Hasil kunci jawaban yang sudah diringkas menjadi hash per baris (urut sesuai hasil query).
+ * Cukup untuk menilai jawaban user tanpa menjalankan ulang kunci jawaban.
+ */
+public final class AnswerKeyFingerprint {
+    private final long[] rowHashes;
+
+    AnswerKeyFingerprint(long[] rowHashes) {
+        this.rowHashes = rowHashes;
+    }
+
+    /**
+     * Menjalankan kunci jawaban dan menyimpan hash barisnya.
+     * Mengembalikan null jika hasilnya lebih dari maxRows baris (terlalu besar untuk di-cache).
+     */
+    public static AnswerKeyFingerprint capture(Connection conn, String answerKey, int maxRows) throws SQLException {
+        conn.setAutoCommit(false);
+        try (Statement stmt = GradingEngine.streamingStatement(conn);
+             ResultSet rs = stmt.executeQuery(answerKey)) {
+            int columnCount = rs.getMetaData().getColumnCount();
+            long[] hashes = new long[GradingEngine.FETCH_SIZE];
+            int count = 0;
+            while (rs.next()) {
+                if (count == maxRows) return null;
+                if (count == hashes.length) {
+                    hashes = Arrays.copyOf(hashes, Math.min(hashes.length * 2, maxRows));
+                }
+                hashes[count++] = RowHasher.hashRow(rs, columnCount);
+            }
+            return new AnswerKeyFingerprint(Arrays.copyOf(hashes, count));
+        }
+    }
+
+    public int rowCount() {
+        return rowHashes.length;
+    }
+
+    long rowHash(int index) {
+        return rowHashes[index];
+    }
+
+    long sizeInBytes() {
+        return 16L + rowHashes.length * 8L;
+    }
+}
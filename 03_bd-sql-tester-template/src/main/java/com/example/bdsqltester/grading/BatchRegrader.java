@@ -0,0 +1,135 @@
+package com.example.bdsqltester.grading;
+
+import com.example.bdsqltester.datasources.GradeRepository;
+import com.example.bdsqltester.datasources.GradingDataSource;
+import com.example.bdsqltester.datasources.MainDataSource;
+import com.example.bdsqltester.datasources.QueryGovernor;
+import com.example.bdsqltester.datasources.SubmissionRepository;
+import com.example.bdsqltester.datasources.SubmissionRepository.StoredSubmission;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Menilai ulang semua submission yang tersimpan untuk satu assignment,
+ * misalnya setelah admin mengubah kunci jawaban.
+ *
+ * Setiap submission dinilai lewat {@link MultiDatasetGrader}, sama seperti saat submit, secara paralel
+ * dengan jumlah thread sebesar pool GradingDataSource. Kunci jawaban dijalankan sekali di awal
+ * (dengan batas {@link AnswerKeyCache#getMaxRowsPerEntry()}; hasil yang lebih besar dinilai streaming).
+ * Nilai baru per user adalah nilai tertinggi dari semua submission-nya, dan ditulis kembali dengan batch upsert
+ * tanpa menimpa nilai submission baru yang dinilai worker selama re-grade berjalan.
+ *
+ * Query yang error atau dihentikan governor mendapat nilai 0, sama seperti saat submit. Error koneksi
+ * menghentikan re-grade sebelum nilai ditulis, supaya gangguan database tidak menimpa nilai lama dengan 0.
+ */
+public class BatchRegrader {
+
+    public interface ProgressListener {
+        void onProgress(int graded, int total, double submissionsPerSecond);
+    }
+
+    public static class Result {
+        public final int submissions;
+        public final int users;
+        public final long elapsedMillis;
+
+        Result(int submissions, int users, long elapsedMillis) {
+            this.submissions = submissions;
+            this.users = users;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public double submissionsPerSecond() {
+            return elapsedMillis > 0 ? submissions * 1000.0 / elapsedMillis : submissions;
+        }
+    }
+
+    private final long assignmentId;
+    private final String answerKey;
+    private final ProgressListener listener;
+
+    public BatchRegrader(long assignmentId, String answerKey, ProgressListener listener) {
+        this.assignmentId = assignmentId;
+        this.answerKey = answerKey;
+        this.listener = listener;
+    }
+
+    public Result run() throws SQLException {
+        long start = System.nanoTime();
+        // Submission setelah id ini dinilai worker dengan kunci jawaban baru, bukan oleh re-grade
+        long latestSubmissionId = SubmissionRepository.findLatestId(assignmentId);
+        List<StoredSubmission> submissions = SubmissionRepository.findDistinctByAssignment(assignmentId);
+
+        AnswerKeyCache.invalidate(assignmentId);
+        try (Connection c = GradingDataSource.getConnection(QueryGovernor.ROLE_ADMIN)) {
+            AnswerKeyFingerprint fingerprint = AnswerKeyFingerprint.capture(c, answerKey, AnswerKeyCache.getMaxRowsPerEntry());
+            if (fingerprint != null) {
+                AnswerKeyCache.put(assignmentId, answerKey, fingerprint);
+            } else {
+                AnswerKeyCache.markOversize(assignmentId, answerKey);
+            }
+        }
+
+        Map<Long, Integer> bestGrades = new ConcurrentHashMap<>();
+        AtomicInteger graded = new AtomicInteger();
+        int total = submissions.size();
+        listener.onProgress(0, total, 0);
+
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        ExecutorService pool = Executors.newFixedThreadPool(GradingDataSource.getMaximumPoolSize(), runnable -> {
+            Thread thread = new Thread(runnable, "regrade-worker-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>(total);
+            for (StoredSubmission submission : submissions) {
+                futures.add(pool.submit(() -> {
+                    int grade = gradeOne(submission.query);
+                    bestGrades.merge(submission.userId, grade, Math::max);
+                    int done = graded.incrementAndGet();
+                    double seconds = (System.nanoTime() - start) / 1e9;
+                    listener.onProgress(done, total, seconds > 0 ? done / seconds : 0);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException sqlException) throw sqlException;
+            throw new SQLException("Re-grade failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Re-grade interrupted", e);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        try (Connection c = MainDataSource.getConnection()) {
+            GradeRepository.replaceGrades(c, assignmentId, bestGrades, latestSubmissionId);
+        }
+
+        return new Result(total, bestGrades.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private int gradeOne(String query) throws SQLException {
+        try {
+            return MultiDatasetGrader.grade(assignmentId, query, answerKey).getGrade();
+        } catch (SQLException e) {
+            if (GradingEngine.isConnectionFailure(e)) throw e;
+            // Query user yang error atau melewati statement_timeout mendapat nilai 0, sama seperti saat submit
+            return GradingEngine.NO_SCORE;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.bdsqltester.grading;
+
+import com.example.bdsqltester.datasources.GradingDataSource;
+import com.example.bdsqltester.datasources.QueryGovernor;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Koneksi mahasiswa dan koneksi admin untuk membandingkan jawaban dengan kunci jawaban secara streaming.
+ *
+ * Kedua koneksi diambil di bawah satu lock: tanpa lock, beberapa thread yang masing-masing sudah
+ * memegang satu koneksi bisa saling menunggu koneksi kedua sampai pool habis (deadlock).
+ * Dengan lock, paling banyak satu thread yang menunggu sambil memegang koneksi.
+ */
+final class ConnectionPair implements AutoCloseable {
+    private static final Object acquireLock = new Object();
+
+    final Connection user;
+    final Connection key;
+
+    private ConnectionPair(Connection user, Connection key) {
+        this.user = user;
+        this.key = key;
+    }
+
+    static ConnectionPair open(String dataset) throws SQLException {
+        synchronized (acquireLock) {
+            Connection user = GradingDataSource.getConnection(dataset, QueryGovernor.ROLE_STUDENT);
+            try {
+                return new ConnectionPair(user, GradingDataSource.getConnection(dataset, QueryGovernor.ROLE_ADMIN));
+            } catch (SQLException | RuntimeException e) {
+                user.close();
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            key.close();
+        } finally {
+            user.close();
+        }
+    }
+}
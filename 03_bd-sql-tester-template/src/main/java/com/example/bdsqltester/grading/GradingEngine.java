@@ -0,0 +1,269 @@
+package com.example.bdsqltester.grading;
+
+import com.example.bdsqltester.datasources.GradingDataSource;
+import com.example.bdsqltester.datasources.QueryGovernor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+
+/**
+ * Menilai jawaban user dengan membaca ResultSet jawaban dan kunci jawaban
+ * secara bersamaan (streaming), bukan memuat keduanya ke List&lt;String&gt;.
+ *
+ * Aturan nilai sama seperti sebelumnya:
+ * 100 jika semua baris sama dan urutannya sama,
+ * 50 jika kumpulan barisnya sama tetapi urutan berbeda,
+ * 0 selain itu.
+ */
+public final class GradingEngine {
+    private static final Logger log = LoggerFactory.getLogger(GradingEngine.class);
+
+    public static final int FULL_SCORE = 100;
+    public static final int UNORDERED_SCORE = 50;
+    public static final int NO_SCORE = 0;
+
+    // Jumlah baris yang diambil per round-trip; PostgreSQL hanya memakai cursor
+    // jika autocommit dimatikan.
+    static final int FETCH_SIZE = 1000;
+
+    private GradingEngine() {
+    }
+
+    /**
+     * Error query user menghasilkan nilai 0; error koneksi (lihat {@link #isConnectionFailure})
+     * diteruskan ke pemanggil supaya bisa dicoba lagi.
+     */
+    public static int grade(String userQuery, String answerKey) throws SQLException {
+        try {
+            Integer inDatabase = gradeInDatabase(userQuery, answerKey);
+            if (inDatabase != null) return inDatabase;
+            try (ConnectionPair pair = ConnectionPair.open(GradingDataSource.DEFAULT_DATASET)) {
+                return grade(pair.user, pair.key, userQuery, answerKey);
+            }
+        } catch (SQLException e) {
+            return queryError(e);
+        }
+    }
+
+    /**
+     * Seperti {@link #grade(String, String)}, tetapi hasil kunci jawaban diambil dari
+     * {@link AnswerKeyCache} jika ada, sehingga kunci jawaban tidak dijalankan ulang setiap submit.
+     */
+    public static int grade(long assignmentId, String userQuery, String answerKey) throws SQLException {
+        try {
+            return gradeCached(assignmentId, userQuery, answerKey);
+        } catch (SQLException e) {
+            return queryError(e);
+        }
+    }
+
+    private static int queryError(SQLException e) throws SQLException {
+        if (isConnectionFailure(e)) throw e;
+        log.debug("Query failed, graded {}: {}", NO_SCORE, e.getMessage());
+        return NO_SCORE;
+    }
+
+    /**
+     * Seperti {@link #grade(long, String, String)}, tetapi error SQL diteruskan ke pemanggil.
+     * Jika query yang sama (lihat {@link QueryFingerprint}) pernah dijalankan dan hasilnya masih
+     * ada di {@link SubmissionResultCache}, nilai dihitung tanpa menjalankan query lagi.
+     */
+    public static int gradeCached(long assignmentId, String userQuery, String answerKey) throws SQLException {
+        GradingSchemaMonitor.checkIfDue();
+        String queryFingerprint = QueryFingerprint.of(userQuery);
+        boolean cacheable = QueryFingerprint.isCacheable(queryFingerprint);
+        long generation = SubmissionResultCache.getGeneration();
+        AnswerKeyFingerprint userResult = cacheable ? SubmissionResultCache.get(queryFingerprint) : null;
+
+        if (userResult == null) {
+            Integer inDatabase = gradeInDatabase(userQuery, answerKey);
+            if (inDatabase != null) return inDatabase;
+        }
+
+        AnswerKeyFingerprint fingerprint = AnswerKeyCache.get(assignmentId, answerKey);
+        if (fingerprint == null && !AnswerKeyCache.isOversize(assignmentId, answerKey)) {
+            // Kunci jawaban dibuat admin, jadi dijalankan dengan batas admin
+            try (Connection keyConn = GradingDataSource.getConnection(QueryGovernor.ROLE_ADMIN)) {
+                fingerprint = AnswerKeyFingerprint.capture(keyConn, answerKey, AnswerKeyCache.getMaxRowsPerEntry());
+            }
+            if (fingerprint != null) {
+                AnswerKeyCache.put(assignmentId, answerKey, fingerprint);
+            } else {
+                AnswerKeyCache.markOversize(assignmentId, answerKey);
+            }
+        }
+        if (fingerprint == null) {
+            // Hasil kunci jawaban terlalu besar untuk di-cache, bandingkan secara streaming
+            try (ConnectionPair pair = ConnectionPair.open(GradingDataSource.DEFAULT_DATASET)) {
+                return grade(pair.user, pair.key, userQuery, answerKey);
+            }
+        }
+        if (userResult != null) return compare(userResult, fingerprint);
+
+        RowHashRecorder recorder = cacheable ? new RowHashRecorder(SubmissionResultCache.getMaxRowsPerEntry()) : null;
+        int grade;
+        try (Connection conn = GradingDataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement userStmt = streamingStatement(conn);
+                 ResultSet userRs = userStmt.executeQuery(userQuery)) {
+                grade = compare(userRs, fingerprint, recorder);
+            }
+        }
+        if (recorder != null) {
+            AnswerKeyFingerprint result = recorder.toFingerprint();
+            if (result != null) SubmissionResultCache.put(queryFingerprint, generation, result);
+        }
+        return grade;
+    }
+
+    /**
+     * Menilai dengan {@link InDatabaseComparison} jika diaktifkan. Null jika tidak aktif
+     * atau query tidak bisa dibungkus, sehingga pemanggil membandingkan di aplikasi.
+     */
+    private static Integer gradeInDatabase(String userQuery, String answerKey) throws SQLException {
+        if (!InDatabaseComparison.isEnabled()) return null;
+        try (Connection conn = GradingDataSource.getConnection()) {
+            return InDatabaseComparison.grade(conn, userQuery, answerKey);
+        }
+    }
+
+    /**
+     * True jika error berasal dari koneksi atau pool (database tidak bisa dihubungi),
+     * bukan dari query user. Error seperti ini sebaiknya dicoba lagi, bukan diberi nilai 0.
+     */
+    public static boolean isConnectionFailure(SQLException e) {
+        String state = e.getSQLState();
+        return e instanceof SQLTransientConnectionException
+                || e instanceof SQLNonTransientConnectionException
+                || (state != null && state.startsWith("08"));
+    }
+
+    public static int grade(Connection userConn, String userQuery, AnswerKeyFingerprint fingerprint) throws SQLException {
+        userConn.setAutoCommit(false);
+        try (Statement userStmt = streamingStatement(userConn);
+             ResultSet userRs = userStmt.executeQuery(userQuery)) {
+            return compare(userRs, fingerprint);
+        }
+    }
+
+    public static int grade(Connection userConn, Connection keyConn, String userQuery, String answerKey) throws SQLException {
+        // Hikari mengembalikan autocommit dan melakukan rollback saat koneksi dikembalikan ke pool
+        userConn.setAutoCommit(false);
+        keyConn.setAutoCommit(false);
+
+        try (Statement userStmt = streamingStatement(userConn);
+             Statement keyStmt = streamingStatement(keyConn);
+             ResultSet userRs = userStmt.executeQuery(userQuery);
+             ResultSet keyRs = keyStmt.executeQuery(answerKey)) {
+            return compare(userRs, keyRs);
+        }
+    }
+
+    static Statement streamingStatement(Connection conn) throws SQLException {
+        Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        stmt.setFetchSize(FETCH_SIZE);
+        return stmt;
+    }
+
+    static int compare(ResultSet userRs, ResultSet keyRs) throws SQLException {
+        int userColumns = userRs.getMetaData().getColumnCount();
+        int keyColumns = keyRs.getMetaData().getColumnCount();
+
+        // Tahap 1: bandingkan berurutan sampai ada baris yang berbeda
+        RowHashMultiset rows = new RowHashMultiset(FETCH_SIZE);
+        boolean userHasRow = userRs.next();
+        boolean keyHasRow = keyRs.next();
+        if (!userHasRow && !keyHasRow) return FULL_SCORE;
+
+        while (userHasRow && keyHasRow) {
+            long userHash = RowHasher.hashRow(userRs, userColumns);
+            long keyHash = RowHasher.hashRow(keyRs, keyColumns);
+            rows.addUserRow(userHash);
+            rows.addKeyRow(keyHash);
+            userHasRow = userRs.next();
+            keyHasRow = keyRs.next();
+            if (userHash != keyHash) break;
+            if (!userHasRow && !keyHasRow) return FULL_SCORE;
+        }
+
+        // Tahap 2: sisa baris hanya perlu dicek sebagai kumpulan (nilai 50)
+        while (userHasRow) {
+            rows.addUserRow(RowHasher.hashRow(userRs, userColumns));
+            userHasRow = userRs.next();
+        }
+        while (keyHasRow) {
+            rows.addKeyRow(RowHasher.hashRow(keyRs, keyColumns));
+            keyHasRow = keyRs.next();
+        }
+
+        return rows.sameDistinctRows() ? UNORDERED_SCORE : NO_SCORE;
+    }
+
+    static int compare(ResultSet userRs, AnswerKeyFingerprint key) throws SQLException {
+        return compare(userRs, key, null);
+    }
+
+    /** Seperti {@link #compare(ResultSet, AnswerKeyFingerprint)}; hash setiap baris user juga dicatat ke recorder. */
+    static int compare(ResultSet userRs, AnswerKeyFingerprint key, RowHashRecorder recorder) throws SQLException {
+        int userColumns = userRs.getMetaData().getColumnCount();
+        int keyRows = key.rowCount();
+
+        // Tahap 1: bandingkan berurutan dengan hash kunci jawaban
+        int index = 0;
+        long userHash = 0;
+        boolean userHasRow = userRs.next();
+        while (userHasRow) {
+            userHash = RowHasher.hashRow(userRs, userColumns);
+            if (recorder != null) recorder.add(userHash);
+            if (index >= keyRows || userHash != key.rowHash(index)) break;
+            index++;
+            userHasRow = userRs.next();
+        }
+        if (!userHasRow && index == keyRows) return FULL_SCORE;
+
+        // Tahap 2: baris 0..index-1 sudah sama di kedua sisi, sisanya dicek sebagai kumpulan
+        RowHashMultiset rows = new RowHashMultiset(keyRows);
+        for (int i = 0; i < keyRows; i++) {
+            rows.addKeyRow(key.rowHash(i));
+        }
+        for (int i = 0; i < index; i++) {
+            rows.addUserRow(key.rowHash(i));
+        }
+        while (userHasRow) {
+            rows.addUserRow(userHash);
+            userHasRow = userRs.next();
+            if (userHasRow) {
+                userHash = RowHasher.hashRow(userRs, userColumns);
+                if (recorder != null) recorder.add(userHash);
+            }
+        }
+
+        return rows.sameDistinctRows() ? UNORDERED_SCORE : NO_SCORE;
+    }
+
+    /** Aturan yang sama dengan perbandingan ResultSet, untuk hasil user yang diambil dari cache. */
+    static int compare(AnswerKeyFingerprint user, AnswerKeyFingerprint key) {
+        int userRows = user.rowCount();
+        int keyRows = key.rowCount();
+        int index = 0;
+        while (index < userRows && index < keyRows && user.rowHash(index) == key.rowHash(index)) {
+            index++;
+        }
+        if (index == userRows && index == keyRows) return FULL_SCORE;
+
+        RowHashMultiset rows = new RowHashMultiset(keyRows);
+        for (int i = 0; i < keyRows; i++) {
+            rows.addKeyRow(key.rowHash(i));
+        }
+        for (int i = 0; i < userRows; i++) {
+            rows.addUserRow(user.rowHash(i));
+        }
+        return rows.sameDistinctRows() ? UNORDERED_SCORE : NO_SCORE;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.bdsqltester.grading;
+
+import com.example.bdsqltester.datasources.DataSourceConfig;
+import com.example.bdsqltester.datasources.GradingDataSource;
+import com.example.bdsqltester.datasources.QueryGovernor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Mendeteksi perubahan isi database grading (oracle_hr) supaya hasil yang di-cache
+ * tidak dipakai lagi. Tanda tangan database diambil dari katalog (DDL mengubah xmin/relfilenode
+ * baris pg_class dan pg_proc) dan jumlah insert/update/delete di pg_stat_user_tables.
+ *
+ * Statistik tabel dikirim PostgreSQL secara berkala, jadi perubahan data bisa terlambat
+ * terdeteksi beberapa detik.
+ */
+public final class GradingSchemaMonitor {
+    private static final Logger log = LoggerFactory.getLogger(GradingSchemaMonitor.class);
+
+    private static final String SIGNATURE_SQL =
+            "SELECT (SELECT md5(string_agg(format('%s:%s:%s:%s:%s', c.oid, c.xmin, c.relfilenode, c.relnatts, " +
+                    "coalesce(s.n_tup_ins + s.n_tup_upd + s.n_tup_del, 0)), ',' ORDER BY c.oid)) " +
+                    "FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace " +
+                    "LEFT JOIN pg_stat_user_tables s ON s.relid = c.oid " +
+                    "WHERE c.relkind IN ('r', 'v', 'm', 'p', 'f') " +
+                    "AND n.nspname NOT IN ('pg_catalog', 'information_schema') AND n.nspname NOT LIKE 'pg\\_%') " +
+                    "|| (SELECT coalesce(md5(string_agg(format('%s:%s', p.oid, p.xmin), ',' ORDER BY p.oid)), '') " +
+                    "FROM pg_proc p JOIN pg_namespace n ON n.oid = p.pronamespace " +
+                    "WHERE n.nspname NOT IN ('pg_catalog', 'information_schema') AND n.nspname NOT LIKE 'pg\\_%')";
+
+    private static final long INTERVAL_NANOS =
+            DataSourceConfig.getLong("grading.schemaCheckIntervalSeconds", 10) * 1_000_000_000L;
+    private static final ReentrantLock lock = new ReentrantLock();
+
+    private static volatile long nextCheckNanos = System.nanoTime();
+    private static String lastSignature;
+
+    private GradingSchemaMonitor() {
+    }
+
+    /**
+     * Dipanggil sebelum memakai cache. Paling banyak satu pengecekan per interval;
+     * thread lain yang datang saat pengecekan berjalan langsung lanjut.
+     */
+    public static void checkIfDue() {
+        if (INTERVAL_NANOS <= 0 || System.nanoTime() - nextCheckNanos < 0 || !lock.tryLock()) return;
+        try {
+            if (System.nanoTime() - nextCheckNanos < 0) return;
+            check();
+        } finally {
+            nextCheckNanos = System.nanoTime() + INTERVAL_NANOS;
+            lock.unlock();
+        }
+    }
+
+    private static void check() {
+        String signature;
+        try (Connection conn = GradingDataSource.getConnection(QueryGovernor.ROLE_ADMIN);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(SIGNATURE_SQL)) {
+            signature = rs.next() ? rs.getString(1) : null;
+        } catch (SQLException e) {
+            log.warn("Grading schema check failed: {}", e.getMessage());
+            return;
+        }
+        if (lastSignature != null && !Objects.equals(lastSignature, signature)) {
+            log.info("Grading database changed, clearing grading caches");
+            AnswerKeyCache.bumpSchemaVersion();
+            SubmissionResultCache.clear();
+        }
+        lastSignature = signature;
+    }
+}
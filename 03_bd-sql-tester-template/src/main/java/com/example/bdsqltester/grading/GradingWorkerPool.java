@@ -0,0 +1,169 @@
+package com.example.bdsqltester.grading;
+
+import com.example.bdsqltester.datasources.AssignmentRepository;
+import com.example.bdsqltester.datasources.DataSourceConfig;
+import com.example.bdsqltester.datasources.GradeRepository;
+import com.example.bdsqltester.datasources.MainDataSource;
+import com.example.bdsqltester.datasources.SubmissionRepository;
+import com.example.bdsqltester.datasources.SubmissionRepository.PendingSubmission;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Worker yang mengambil submission PENDING dari tabel submissions dan menilainya.
+ *
+ * Setiap worker mengambil satu submission dengan UPDATE ... SKIP LOCKED yang langsung di-commit
+ * (status GRADING), menilai tanpa memegang koneksi atau transaksi database utama, lalu memperbarui
+ * submissions dan grades dalam satu transaksi pendek. Karena itu beberapa instance bisa menjalankan
+ * worker bersamaan, dan submission yang ditinggal worker yang mati dikembalikan ke antrian setelah
+ * grading.claimTimeoutSeconds.
+ *
+ * Worker membaca kunci jawaban, jadi hanya dijalankan di instance admin atau server
+ * (grading.workers &gt; 0, login admin, atau {@link com.example.bdsqltester.cli.GradingWorkerCli}),
+ * bukan di aplikasi mahasiswa. Selama berjalan, pool mengirim heartbeat ke tabel grading_workers;
+ * {@link SubmissionRepository#submit} menolak submission jika tidak ada pool yang hidup.
+ */
+public final class GradingWorkerPool {
+    public static final int DEFAULT_WORKERS = 2;
+    private static final long IDLE_POLL_MILLIS = 500;
+    private static final long ERROR_BACKOFF_MILLIS = 5000;
+    private static final long HEARTBEAT_MILLIS = 10_000;
+    private static final long CLAIM_TIMEOUT_MILLIS = DataSourceConfig.getLong("grading.claimTimeoutSeconds", 300) * 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(GradingWorkerPool.class);
+    private static final List<Thread> workers = new ArrayList<>();
+    private static volatile boolean running;
+    private static volatile long nextRequeueNanos = System.nanoTime();
+    private static volatile long nextHeartbeatNanos = System.nanoTime();
+    private static final String WORKER_NAME = workerName();
+
+    private GradingWorkerPool() {
+    }
+
+    /** Jumlah worker dari grading.workers; 0 (bawaan) berarti aplikasi ini tidak menilai submission. */
+    public static int getConfiguredWorkers() {
+        return DataSourceConfig.getInt("grading.workers", 0);
+    }
+
+    /** Jumlah worker yang dijalankan saat admin login (grading.adminWorkers, bawaan 1). */
+    public static int getAdminWorkers() {
+        return DataSourceConfig.getInt("grading.adminWorkers", 1);
+    }
+
+    /** Tidak melakukan apa-apa jika pool sudah berjalan. */
+    public static synchronized void start(int workerCount) {
+        if (running || workerCount <= 0) return;
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread thread = new Thread(GradingWorkerPool::workLoop, "grading-worker-" + (i + 1));
+            thread.setDaemon(true);
+            thread.start();
+            workers.add(thread);
+        }
+    }
+
+    public static synchronized void stop() {
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        workers.clear();
+    }
+
+    private static void workLoop() {
+        while (running) {
+            try {
+                if (!processNext()) {
+                    Thread.sleep(IDLE_POLL_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (SQLException | RuntimeException e) {
+                log.warn("Grading worker failed, retrying in {} ms: {}", ERROR_BACKOFF_MILLIS, e.getMessage());
+                try {
+                    Thread.sleep(ERROR_BACKOFF_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static String workerName() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        return host + ":" + ProcessHandle.current().pid();
+    }
+
+    /** Menilai satu submission. Mengembalikan false jika antrian kosong. */
+    static boolean processNext() throws SQLException {
+        PendingSubmission submission;
+        String answerKey;
+        try (Connection c = MainDataSource.getConnection()) {
+            if (System.nanoTime() - nextHeartbeatNanos >= 0) {
+                nextHeartbeatNanos = System.nanoTime() + HEARTBEAT_MILLIS * 1_000_000L;
+                SubmissionRepository.heartbeat(c, WORKER_NAME);
+            }
+            if (System.nanoTime() - nextRequeueNanos >= 0) {
+                nextRequeueNanos = System.nanoTime() + CLAIM_TIMEOUT_MILLIS * 1_000_000L / 2;
+                int requeued = SubmissionRepository.requeueStale(c, CLAIM_TIMEOUT_MILLIS);
+                if (requeued > 0) log.warn("Requeued {} submissions abandoned by a grading worker", requeued);
+            }
+            submission = SubmissionRepository.claimNext(c);
+            if (submission == null) return false;
+            answerKey = AssignmentRepository.findAnswerKey(c, submission.assignmentId);
+        }
+
+        int grade;
+        String error = null;
+        String datasetGrades = null;
+        try {
+            if (answerKey == null) throw new IllegalStateException("Assignment " + submission.assignmentId + " not found");
+            MultiDatasetGrader.Result result = MultiDatasetGrader.grade(submission.assignmentId, submission.query, answerKey);
+            grade = result.getGrade();
+            datasetGrades = result.summary();
+        } catch (SQLException e) {
+            if (GradingEngine.isConnectionFailure(e)) {
+                // Database grading tidak bisa dihubungi: kembalikan ke PENDING dan coba lagi nanti
+                try (Connection c = MainDataSource.getConnection()) {
+                    SubmissionRepository.release(c, submission.id);
+                }
+                throw e;
+            }
+            grade = GradingEngine.NO_SCORE;
+            error = e.getMessage();
+        } catch (RuntimeException e) {
+            // Bug di aplikasi, bukan kesalahan query: jangan beri nilai 0, tandai FAILED dan lanjut
+            log.error("Grading submission {} failed", submission.id, e);
+            try (Connection c = MainDataSource.getConnection()) {
+                SubmissionRepository.markFailed(c, submission.id, String.valueOf(e));
+            }
+            return true;
+        }
+
+        try (Connection c = MainDataSource.getConnection()) {
+            c.setAutoCommit(false);
+            try {
+                if (SubmissionRepository.markGraded(c, submission.id, grade, error, datasetGrades)) {
+                    GradeRepository.saveBestGrade(c, submission.userId, submission.assignmentId, grade);
+                }
+                c.commit();
+                return true;
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            }
+        }
+    }
+}
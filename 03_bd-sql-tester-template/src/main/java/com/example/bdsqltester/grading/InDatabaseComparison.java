@@ -0,0 +1,113 @@
+package com.example.bdsqltester.grading;
+
+import com.example.bdsqltester.datasources.DataSourceConfig;
+import com.example.bdsqltester.datasources.QueryGovernor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Membandingkan jawaban dan kunci jawaban di dalam PostgreSQL, sehingga hanya satu
+ * baris hasil (nilai dan jumlah baris) yang dikirim ke aplikasi.
+ *
+ * Kedua query dibungkus sebagai subquery; setiap baris diubah ke teks (nilai kolom dari
+ * row_to_json, NULL sama dengan string kosong seperti {@link RowHasher}, dipisah karakter 0x1f)
+ * dan diberi nomor dengan row_number() OVER () sesuai urutan hasil query, tanpa mengumpulkan
+ * seluruh hasil ke satu nilai (ARRAY dibatasi 1 GB dan harus muat di memori backend).
+ * Urutan dicek dengan membandingkan baris per nomor, kumpulan baris dengan EXCEPT dua arah.
+ * EXCEPT (bukan EXCEPT ALL) sengaja dipakai: perbandingan di aplikasi ({@link RowHashMultiset})
+ * juga tidak menghitung duplikat, jadi kedua mode memberi nilai 50 untuk hasil yang sama.
+ *
+ * Nilai bisa berbeda dengan perbandingan di aplikasi, karena itu grading.compareInDatabase=false
+ * secara bawaan:
+ * <ul>
+ *   <li>nilai diubah ke teks lewat JSON, bukan format teks JDBC, jadi kolom dengan tipe berbeda
+ *       (misalnya teks vs timestamp) yang tampil sama di JDBC bisa dianggap berbeda;</li>
+ *   <li>kunci jawaban dijalankan di koneksi mahasiswa dengan batas mahasiswa, dan tidak memakai
+ *       {@link AnswerKeyCache}.</li>
+ * </ul>
+ * Jika query tidak bisa dibungkus (misalnya lebih dari satu statement atau bukan SELECT),
+ * penilaian kembali ke perbandingan di aplikasi.
+ */
+final class InDatabaseComparison {
+    private static final Logger log = LoggerFactory.getLogger(InDatabaseComparison.class);
+
+    private static final boolean enabled =
+            Boolean.parseBoolean(DataSourceConfig.getString("grading.compareInDatabase", "false"));
+
+    private InDatabaseComparison() {
+    }
+
+    static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Mengembalikan nilai, atau null jika query tidak bisa dinilai di database dan
+     * pemanggil perlu membandingkan di aplikasi.
+     */
+    static Integer grade(Connection conn, String userQuery, String answerKey) throws SQLException {
+        String user = unwrapStatement(userQuery);
+        String key = unwrapStatement(answerKey);
+        if (user == null || key == null) return null;
+
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(comparisonSql(user, key))) {
+            rs.next();
+            log.debug("In-database comparison: grade={}, userRows={}, keyRows={}",
+                    rs.getInt("grade"), rs.getLong("user_rows"), rs.getLong("key_rows"));
+            return rs.getInt("grade");
+        } catch (SQLException e) {
+            conn.rollback();
+            // Error koneksi dan query yang dihentikan governor tidak akan berhasil dengan cara lain
+            if (GradingEngine.isConnectionFailure(e) || QueryGovernor.SQLSTATE_QUERY_CANCELED.equals(e.getSQLState())) throw e;
+            log.debug("In-database comparison failed, falling back to client-side: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /** Membuang titik koma di akhir; null jika masih ada titik koma lain (lebih dari satu statement). */
+    static String unwrapStatement(String query) {
+        String trimmed = query.strip();
+        while (trimmed.endsWith(";")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1).stripTrailing();
+        }
+        if (trimmed.isEmpty() || trimmed.indexOf(';') >= 0) return null;
+        return trimmed;
+    }
+
+    /**
+     * Baris query sebagai (n, r): nomor urut dan teks baris dengan NULL = ''. row_number() tanpa
+     * ORDER BY memberi nomor sesuai urutan baris keluar dari subquery, dan baris dibaca satu per satu.
+     */
+    static String numberedRows(String query) {
+        return "    SELECT row_number() OVER () AS n,\n" +
+                "           coalesce((SELECT string_agg(coalesce(c.v, ''), chr(31) ORDER BY c.i)\n" +
+                "                       FROM json_each_text(row_to_json(t)) WITH ORDINALITY AS c(k, v, i)), '') AS r\n" +
+                "      FROM (\n" + query + "\n    ) t";
+    }
+
+    static String comparisonSql(String userQuery, String answerKey) {
+        // Baris baru sebelum ")" supaya komentar "--" di akhir query tidak ikut menutup subquery.
+        // Subquery di CASE hanya dijalankan jika diperlukan, jadi EXCEPT dilewati saat urutan sudah sama.
+        return "WITH user_rows AS MATERIALIZED (\n" + numberedRows(userQuery) + "),\n" +
+                "key_rows AS MATERIALIZED (\n" + numberedRows(answerKey) + "),\n" +
+                "user_summary AS (SELECT count(*) AS row_count FROM user_rows),\n" +
+                "key_summary AS (SELECT count(*) AS row_count FROM key_rows)\n" +
+                "SELECT CASE\n" +
+                "    WHEN u.row_count = k.row_count AND NOT EXISTS (\n" +
+                "        SELECT 1 FROM user_rows ur JOIN key_rows kr USING (n) WHERE ur.r <> kr.r) THEN "
+                + GradingEngine.FULL_SCORE + "\n" +
+                "    WHEN NOT EXISTS (SELECT r FROM user_rows EXCEPT SELECT r FROM key_rows)\n" +
+                "         AND NOT EXISTS (SELECT r FROM key_rows EXCEPT SELECT r FROM user_rows) THEN "
+                + GradingEngine.UNORDERED_SCORE + "\n" +
+                "    ELSE " + GradingEngine.NO_SCORE + "\n" +
+                "END AS grade, u.row_count AS user_rows, k.row_count AS key_rows\n" +
+                "FROM user_summary u, key_summary k";
+    }
+}
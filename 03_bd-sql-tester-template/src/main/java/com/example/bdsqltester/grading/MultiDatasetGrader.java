@@ -0,0 +1,138 @@
+package com.example.bdsqltester.grading;
+
+import com.example.bdsqltester.datasources.DataSourceConfig;
+import com.example.bdsqltester.datasources.GradingDataSource;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Menilai jawaban di semua dataset grading (lihat {@link GradingDataSource#getDatasetNames()}),
+ * supaya query yang menulis id atau nilai secara langsung tidak lolos hanya karena cocok dengan oracle_hr.
+ *
+ * Dataset utama dinilai di thread pemanggil lewat {@link GradingEngine#gradeCached}, dataset lain
+ * dinilai bersamaan di executor sendiri, jadi waktu total kira-kira sama dengan dataset yang paling lambat.
+ * Nilai akhir adalah nilai terendah dari semua dataset.
+ */
+public final class MultiDatasetGrader {
+    private static final AtomicInteger threadNumber = new AtomicInteger(1);
+    private static final ExecutorService executor = createExecutor();
+
+    private MultiDatasetGrader() {
+    }
+
+    /** Null jika hanya ada dataset utama. */
+    private static ExecutorService createExecutor() {
+        int extraDatasets = GradingDataSource.getDatasetNames().size() - 1;
+        if (extraDatasets == 0) return null;
+        int threads = DataSourceConfig.getInt("grading.datasetThreads",
+                extraDatasets * GradingWorkerPool.DEFAULT_WORKERS);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "grading-dataset-" + threadNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Error SQL dari dataset utama diteruskan seperti {@link GradingEngine#gradeCached}.
+     * Error query di dataset lain hanya membuat nilai dataset itu 0, kecuali error koneksi.
+     */
+    public static Result grade(long assignmentId, String userQuery, String answerKey) throws SQLException {
+        List<String> names = GradingDataSource.getDatasetNames();
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (String name : names.subList(1, names.size())) {
+            futures.add(executor.submit(() -> gradeOnDataset(name, userQuery, answerKey)));
+        }
+
+        List<DatasetVerdict> verdicts = new ArrayList<>();
+        try {
+            verdicts.add(new DatasetVerdict(names.get(0),
+                    GradingEngine.gradeCached(assignmentId, userQuery, answerKey), null));
+        } catch (SQLException | RuntimeException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            String name = names.get(i + 1);
+            try {
+                verdicts.add(new DatasetVerdict(name, futures.get(i).get(), null));
+            } catch (InterruptedException e) {
+                futures.forEach(future -> future.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while grading dataset " + name, e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (!(cause instanceof SQLException sqlException)) {
+                    throw new SQLException("Grading dataset " + name + " failed", cause);
+                }
+                if (GradingEngine.isConnectionFailure(sqlException)) {
+                    futures.forEach(future -> future.cancel(true));
+                    throw sqlException;
+                }
+                verdicts.add(new DatasetVerdict(name, GradingEngine.NO_SCORE, sqlException.getMessage()));
+            }
+        }
+        return new Result(verdicts);
+    }
+
+    private static int gradeOnDataset(String dataset, String userQuery, String answerKey) throws SQLException {
+        // Cache kunci jawaban dan hasil query hanya berlaku untuk dataset utama
+        try (ConnectionPair pair = ConnectionPair.open(dataset)) {
+            return GradingEngine.grade(pair.user, pair.key, userQuery, answerKey);
+        }
+    }
+
+    public static class DatasetVerdict {
+        public final String dataset;
+        public final int grade;
+        public final String error;
+
+        DatasetVerdict(String dataset, int grade, String error) {
+            this.dataset = dataset;
+            this.grade = grade;
+            this.error = error;
+        }
+    }
+
+    public static class Result {
+        public final List<DatasetVerdict> verdicts;
+
+        Result(List<DatasetVerdict> verdicts) {
+            this.verdicts = verdicts;
+        }
+
+        public int getGrade() {
+            int grade = GradingEngine.FULL_SCORE;
+            for (DatasetVerdict verdict : verdicts) {
+                grade = Math.min(grade, verdict.grade);
+            }
+            return grade;
+        }
+
+        /** Contoh: "default=100, hr_v1=0 (ERROR: ...)"; null jika hanya ada satu dataset. */
+        public String summary() {
+            if (verdicts.size() < 2) return null;
+            StringBuilder text = new StringBuilder();
+            for (DatasetVerdict verdict : verdicts) {
+                if (text.length() > 0) text.append(", ");
+                text.append(verdict.dataset).append('=').append(verdict.grade);
+                if (verdict.error != null) text.append(" (").append(verdict.error).append(')');
+            }
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.bdsqltester.grading;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bentuk kanonik query untuk key {@link SubmissionResultCache}. Normalisasi hanya mengubah
+ * hal yang tidak mempengaruhi hasil query:
+ * <ul>
+ *     <li>komentar dibuang dan whitespace diseragamkan,</li>
+ *     <li>huruf A-Z pada keyword dan identifier tanpa tanda kutip diubah ke huruf kecil, seperti
+ *     yang dilakukan PostgreSQL (string literal, "identifier" dan huruf non-ASCII tetap),</li>
+ *     <li>alias tabel di FROM/JOIN yang hanya dipakai sebagai "alias.kolom" diganti nama urut (#t1, #t2, ...).</li>
+ * </ul>
+ * Alias kolom tidak dibuang. Jika ragu (misalnya alias juga dipakai tanpa titik), query dibiarkan apa adanya.
+ *
+ * Fingerprint yang sama tidak menjamin hasil yang sama jika query memanggil fungsi yang hasilnya
+ * berubah-ubah; karena itu hasil hanya di-cache jika {@link #isCacheable} true.
+ */
+public final class QueryFingerprint {
+    private static final Set<String> NOT_AN_ALIAS = Set.of(
+            "where", "on", "using", "join", "inner", "left", "right", "full", "cross", "natural", "outer",
+            "group", "order", "limit", "offset", "union", "intersect", "except", "having", "window", "fetch",
+            "for", "lateral", "tablesample", "as", "select", "from", "returning");
+    private static final Set<String> END_OF_FROM = Set.of(
+            "where", "group", "having", "order", "limit", "offset", "union", "intersect", "except",
+            "window", "fetch", "for", "select", "returning", "on", "using", ")", ";");
+    // Hasil query hanya di-cache jika setiap "nama(" adalah keyword, tipe data atau fungsi di daftar ini,
+    // yang hasilnya hanya bergantung pada argumen dan isi tabel. Fungsi lain (now, random, nextval,
+    // pg_*, fungsi buatan user, ...) membuat query tidak di-cache.
+    private static final Set<String> DETERMINISTIC_CALLS = Set.of(
+            // keyword yang diikuti "("
+            "in", "exists", "any", "all", "some", "over", "values", "from", "join", "as", "on", "using", "filter",
+            "within", "select", "where", "and", "or", "not", "cast", "case", "when", "then", "else", "lateral",
+            "by", "having", "union", "intersect", "except", "with", "distinct", "is", "between", "like", "ilike",
+            "array", "row", "rows", "range", "groups", "partition", "extract", "position", "substring", "trim",
+            "overlay", "coalesce", "nullif", "greatest", "least",
+            // tipe data dengan modifier, misalnya ::numeric(10, 2)
+            "numeric", "decimal", "varchar", "char", "character", "varying", "bit", "timestamp", "time",
+            "interval", "float",
+            // agregat dan window function
+            "count", "sum", "avg", "min", "max", "array_agg", "string_agg", "bool_and", "bool_or", "every",
+            "stddev", "stddev_pop", "stddev_samp", "variance", "var_pop", "var_samp", "json_agg", "jsonb_agg",
+            "percentile_cont", "percentile_disc", "mode", "row_number", "rank", "dense_rank", "percent_rank",
+            "cume_dist", "ntile", "lag", "lead", "first_value", "last_value", "nth_value",
+            // fungsi skalar
+            "abs", "ceil", "ceiling", "floor", "round", "trunc", "mod", "power", "sqrt", "sign", "upper", "lower",
+            "initcap", "length", "char_length", "character_length", "substr", "ltrim", "rtrim", "btrim", "replace",
+            "concat", "concat_ws", "strpos", "left", "right", "lpad", "rpad", "split_part", "reverse", "repeat",
+            "to_char", "to_number", "to_date", "date_part", "date_trunc", "make_date", "regexp_replace",
+            "array_length", "unnest", "generate_series");
+    // Nilai tanpa tanda kurung yang berubah setiap transaksi atau bergantung pada sesi
+    private static final Set<String> NILADIC = Set.of(
+            "current_date", "current_time", "current_timestamp", "localtime", "localtimestamp",
+            "current_user", "session_user", "current_role", "user", "current_catalog", "current_schema",
+            "tablesample");
+
+    private QueryFingerprint() {
+    }
+
+    public static String of(String sql) {
+        List<String> tokens = tokenize(sql);
+        while (!tokens.isEmpty() && tokens.get(tokens.size() - 1).equals(";")) {
+            tokens.remove(tokens.size() - 1);
+        }
+        renameTableAliases(tokens);
+        return String.join(" ", tokens);
+    }
+
+    /**
+     * True hanya jika semua pemanggilan fungsi di query ada di daftar fungsi yang hasilnya tetap
+     * (lihat DETERMINISTIC_CALLS) dan query tidak memakai current_timestamp, current_user, dan sejenisnya.
+     */
+    public static boolean isCacheable(String fingerprint) {
+        List<String> tokens = tokenize(fingerprint);
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if (NILADIC.contains(token)) return false;
+            boolean call = i + 1 < tokens.size() && tokens.get(i + 1).equals("(");
+            if (call && isIdentifier(token) && !DETERMINISTIC_CALLS.contains(token)) return false;
+        }
+        return true;
+    }
+
+    static List<String> tokenize(String sql) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        int n = sql.length();
+        while (i < n) {
+            char ch = sql.charAt(i);
+            if (Character.isWhitespace(ch)) {
+                i++;
+            } else if (ch == '-' && i + 1 < n && sql.charAt(i + 1) == '-') {
+                while (i < n && sql.charAt(i) != '\n') i++;
+            } else if (ch == '/' && i + 1 < n && sql.charAt(i + 1) == '*') {
+                // Komentar blok PostgreSQL boleh bersarang
+                int depth = 0;
+                do {
+                    if (sql.startsWith("/*", i)) {
+                        depth++;
+                        i += 2;
+                    } else if (sql.startsWith("*/", i)) {
+                        depth--;
+                        i += 2;
+                    } else {
+                        i++;
+                    }
+                } while (depth > 0 && i < n);
+            } else if (ch == '\'' || ((ch == 'e' || ch == 'E') && i + 1 < n && sql.charAt(i + 1) == '\'')) {
+                int start = i;
+                boolean escapes = ch != '\'';
+                i = escapes ? i + 2 : i + 1;
+                while (i < n) {
+                    char c = sql.charAt(i);
+                    if (escapes && c == '\\') {
+                        i += 2;
+                    } else if (c == '\'') {
+                        if (i + 1 < n && sql.charAt(i + 1) == '\'') {
+                            i += 2;
+                        } else {
+                            i++;
+                            break;
+                        }
+                    } else {
+                        i++;
+                    }
+                }
+                tokens.add(sql.substring(start, Math.min(i, n)));
+            } else if (ch == '"') {
+                int end = sql.indexOf('"', i + 1);
+                while (end >= 0 && end + 1 < n && sql.charAt(end + 1) == '"') {
+                    end = sql.indexOf('"', end + 2);
+                }
+                end = end < 0 ? n : end + 1;
+                tokens.add(sql.substring(i, end));
+                i = end;
+            } else if (ch == '$' && dollarTag(sql, i) != null) {
+                String tag = dollarTag(sql, i);
+                int end = sql.indexOf(tag, i + tag.length());
+                end = end < 0 ? n : end + tag.length();
+                tokens.add(sql.substring(i, end));
+                i = end;
+            } else if (Character.isLetter(ch) || ch == '_') {
+                int start = i;
+                while (i < n && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '_' || sql.charAt(i) == '$')) i++;
+                tokens.add(asciiLowerCase(sql.substring(start, i)));
+            } else if (Character.isDigit(ch)) {
+                int start = i;
+                while (i < n && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) i++;
+                tokens.add(asciiLowerCase(sql.substring(start, i)));
+            } else if ("+-*/<>=~!@#%^&|`?:".indexOf(ch) >= 0) {
+                int start = i;
+                while (i < n && "+-*/<>=~!@#%^&|`?:".indexOf(sql.charAt(i)) >= 0
+                        && !sql.startsWith("--", i) && !sql.startsWith("/*", i)) i++;
+                if (i == start) i++;
+                tokens.add(sql.substring(start, i));
+            } else {
+                tokens.add(String.valueOf(ch));
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    /** PostgreSQL hanya mengubah A-Z pada identifier tanpa tanda kutip; huruf lain dibiarkan. */
+    private static String asciiLowerCase(String token) {
+        char[] chars = token.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] >= 'A' && chars[i] <= 'Z') chars[i] = (char) (chars[i] + ('a' - 'A'));
+        }
+        return new String(chars);
+    }
+
+    /** "$tag$" atau "$$" jika ada di posisi i, selain itu null (misalnya parameter $1). */
+    private static String dollarTag(String sql, int i) {
+        int j = i + 1;
+        while (j < sql.length() && (Character.isLetterOrDigit(sql.charAt(j)) || sql.charAt(j) == '_')) {
+            if (j == i + 1 && Character.isDigit(sql.charAt(j))) return null;
+            j++;
+        }
+        return j < sql.length() && sql.charAt(j) == '$' ? sql.substring(i, j + 1) : null;
+    }
+
+    private static boolean isIdentifier(String token) {
+        char first = token.charAt(0);
+        return Character.isLetter(first) || first == '_' || first == '"';
+    }
+
+    /** FROM tabel alias / JOIN tabel AS alias, dengan alias yang hanya dipakai sebagai "alias.kolom". */
+    private static void renameTableAliases(List<String> tokens) {
+        Map<String, String> renames = new HashMap<>();
+        List<Integer> optionalAs = new ArrayList<>();
+        boolean inFrom = false;
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if (token.equals("from") || token.equals("join")) {
+                inFrom = true;
+                continue;
+            }
+            if (END_OF_FROM.contains(token)) {
+                inFrom = false;
+                continue;
+            }
+            if (!inFrom || !isIdentifier(token) || NOT_AN_ALIAS.contains(token) || renames.containsKey(token)) continue;
+
+            int tableIndex = i > 0 && tokens.get(i - 1).equals("as") ? i - 2 : i - 1;
+            if (tableIndex < 1 || !isIdentifier(tokens.get(tableIndex))) continue;
+            // Lewati nama skema: hr . employees
+            int before = tableIndex - 1;
+            while (before >= 1 && tokens.get(before).equals(".")) before -= 2;
+            if (before < 0) continue;
+            String keyword = tokens.get(before);
+            if (!keyword.equals("from") && !keyword.equals("join") && !keyword.equals(",")) continue;
+
+            if (onlyUsedAsQualifier(tokens, token, i)) {
+                renames.put(token, "#t" + (renames.size() + 1));
+                if (tableIndex == i - 2) optionalAs.add(i - 1);
+            }
+        }
+        if (renames.isEmpty()) return;
+        for (int i = 0; i < tokens.size(); i++) {
+            String rename = renames.get(tokens.get(i));
+            if (rename != null && (i == 0 || !tokens.get(i - 1).equals("."))) tokens.set(i, rename);
+        }
+        // "tabel AS alias" sama dengan "tabel alias"
+        for (int i = optionalAs.size() - 1; i >= 0; i--) {
+            tokens.remove((int) optionalAs.get(i));
+        }
+    }
+
+    private static boolean onlyUsedAsQualifier(List<String> tokens, String alias, int declaration) {
+        for (int i = 0; i < tokens.size(); i++) {
+            if (i == declaration || !tokens.get(i).equals(alias)) continue;
+            boolean qualifier = i + 1 < tokens.size() && tokens.get(i + 1).equals(".");
+            boolean afterDot = i > 0 && tokens.get(i - 1).equals(".");
+            if (!qualifier && !afterDot) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.bdsqltester.grading;
+
+/**
+ * Multiset hash baris untuk dua sisi (jawaban user dan kunci jawaban) dalam
+ * array primitif dengan open addressing. Satu baris hanya memakan satu long
+ * dan dua int, bukan satu String + entry HashSet.
+ */
+final class RowHashMultiset {
+    private static final long EMPTY = 0L;
+    // Hash 0 dipetakan ke nilai lain karena 0 dipakai sebagai penanda slot kosong
+    private static final long ZERO_REPLACEMENT = 0x5bd1e9955bd1e995L;
+
+    private long[] keys;
+    private int[] userCounts;
+    private int[] keyCounts;
+    private int size;
+
+    RowHashMultiset(int expectedRows) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedRows * 2 - 1)) << 1;
+        keys = new long[capacity];
+        userCounts = new int[capacity];
+        keyCounts = new int[capacity];
+    }
+
+    void addUserRow(long hash) {
+        int slot = slotFor(hash);
+        userCounts[slot]++;
+    }
+
+    void addKeyRow(long hash) {
+        int slot = slotFor(hash);
+        keyCounts[slot]++;
+    }
+
+    /**
+     * Sama dengan perbandingan HashSet yang lama: duplikat tidak dihitung,
+     * hanya dicek apakah kedua sisi punya kumpulan baris berbeda yang sama.
+     */
+    boolean sameDistinctRows() {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY && (userCounts[i] == 0) != (keyCounts[i] == 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int slotFor(long hash) {
+        if (hash == EMPTY) hash = ZERO_REPLACEMENT;
+        if (size * 2 >= keys.length) grow();
+
+        int mask = keys.length - 1;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == hash) return slot;
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = hash;
+        size++;
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldUser = userCounts;
+        int[] oldKey = keyCounts;
+
+        keys = new long[oldKeys.length * 2];
+        userCounts = new int[keys.length];
+        keyCounts = new int[keys.length];
+
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) continue;
+            int slot = (int) (oldKeys[i] ^ (oldKeys[i] >>> 32)) & mask;
+            while (keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            userCounts[slot] = oldUser[i];
+            keyCounts[slot] = oldKey[i];
+        }
+    }
+}
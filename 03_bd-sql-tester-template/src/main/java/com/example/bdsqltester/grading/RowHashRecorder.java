@@ -0,0 +1,34 @@
+package com.example.bdsqltester.grading;
+
+import java.util.Arrays;
+
+/** Mengumpulkan hash baris jawaban user selama dinilai, untuk {@link SubmissionResultCache}. */
+final class RowHashRecorder {
+    private final int maxRows;
+    private long[] hashes = new long[64];
+    private int count;
+    private boolean overflow;
+
+    RowHashRecorder(int maxRows) {
+        this.maxRows = maxRows;
+    }
+
+    void add(long hash) {
+        if (overflow) return;
+        if (count == maxRows) {
+            // Terlalu besar untuk di-cache, hash yang sudah terkumpul dilepas
+            overflow = true;
+            hashes = null;
+            return;
+        }
+        if (count == hashes.length) {
+            hashes = Arrays.copyOf(hashes, Math.min(hashes.length * 2, maxRows));
+        }
+        hashes[count++] = hash;
+    }
+
+    /** Null jika hasil lebih dari maxRows baris. */
+    AnswerKeyFingerprint toFingerprint() {
+        return overflow ? null : new AnswerKeyFingerprint(Arrays.copyOf(hashes, count));
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.bdsqltester.grading;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache LRU berisi hash baris hasil query mahasiswa, dengan {@link QueryFingerprint} sebagai key.
+ * Submit ulang dengan query yang sama (setelah dinormalisasi) dinilai tanpa menjalankan query lagi.
+ *
+ * Hasil query tidak bergantung pada assignment, jadi satu entry berlaku untuk semua assignment.
+ * Semua entry dibuang oleh {@link GradingSchemaMonitor} saat isi database grading berubah.
+ */
+public final class SubmissionResultCache {
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+    public static final int DEFAULT_MAX_ROWS_PER_ENTRY = 100_000;
+
+    private static final LinkedHashMap<String, AnswerKeyFingerprint> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private static long maxBytes = DEFAULT_MAX_BYTES;
+    private static int maxRowsPerEntry = DEFAULT_MAX_ROWS_PER_ENTRY;
+    private static long currentBytes;
+    private static long generation;
+
+    private static long hits;
+    private static long misses;
+    private static long evictions;
+
+    private SubmissionResultCache() {
+    }
+
+    public static synchronized AnswerKeyFingerprint get(String queryFingerprint) {
+        AnswerKeyFingerprint result = entries.get(queryFingerprint);
+        if (result != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return result;
+    }
+
+    /**
+     * Menyimpan hasil yang diambil pada generasi tertentu ({@link #getGeneration()} sebelum query dijalankan).
+     * Hasil yang diambil sebelum {@link #clear()} tidak disimpan.
+     */
+    public static synchronized void put(String queryFingerprint, long fromGeneration, AnswerKeyFingerprint result) {
+        long size = sizeOf(queryFingerprint, result);
+        if (fromGeneration != generation || size > maxBytes) return;
+
+        AnswerKeyFingerprint previous = entries.put(queryFingerprint, result);
+        if (previous != null) currentBytes -= sizeOf(queryFingerprint, previous);
+        currentBytes += size;
+
+        Iterator<Map.Entry<String, AnswerKeyFingerprint>> eldest = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, AnswerKeyFingerprint> entry = eldest.next();
+            currentBytes -= sizeOf(entry.getKey(), entry.getValue());
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    public static synchronized void clear() {
+        generation++;
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    private static long sizeOf(String queryFingerprint, AnswerKeyFingerprint result) {
+        return 40L + queryFingerprint.length() * 2L + result.sizeInBytes();
+    }
+
+    public static synchronized long getGeneration() {
+        return generation;
+    }
+
+    public static synchronized void setMaxBytes(long maxBytes) {
+        SubmissionResultCache.maxBytes = maxBytes;
+    }
+
+    public static synchronized int getMaxRowsPerEntry() {
+        return maxRowsPerEntry;
+    }
+
+    public static synchronized void setMaxRowsPerEntry(int maxRowsPerEntry) {
+        SubmissionResultCache.maxRowsPerEntry = maxRowsPerEntry;
+    }
+
+    public static synchronized long getHits() {
+        return hits;
+    }
+
+    public static synchronized long getMisses() {
+        return misses;
+    }
+
+    public static synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public static synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public static synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.bdsqltester.scenes;
+
+import com.example.bdsqltester.datasources.LatencyHistogram;
+import com.example.bdsqltester.datasources.PoolMetrics;
+import com.example.bdsqltester.datasources.QueryGovernor;
+import com.example.bdsqltester.datasources.QueryGovernor.KillEvent;
+import com.example.bdsqltester.datasources.QueryMetrics;
+import com.example.bdsqltester.datasources.QueryMetrics.TemplateStats;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TabPane;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Jendela "Diagnostics" untuk admin: latensi per template SQL, waktu tunggu dan isi pool,
+ * serta query yang dihentikan QueryGovernor. Data diperbarui setiap 2 detik selama jendela terbuka.
+ */
+public class DiagnosticsWindow {
+    private static final Duration REFRESH_INTERVAL = Duration.seconds(2);
+
+    private final Stage stage = new Stage();
+    private final TableView<TemplateStats> queryTable = new TableView<>();
+    private final TableView<List<String>> poolTable = new TableView<>();
+    private final TableView<KillEvent> killTable = new TableView<>();
+
+    private DiagnosticsWindow() {
+        stage.setTitle("Diagnostics");
+
+        queryTable.getColumns().addAll(List.of(
+                textColumn("Pool", s -> s.pool, 70),
+                numberColumn("Count", s -> s.latency.getCount()),
+                numberColumn("Errors", TemplateStats::getErrors),
+                millisColumn("Mean ms", s -> s.latency.getMeanMillis()),
+                millisColumn("p50 ms", s -> s.latency.getPercentileMillis(50)),
+                millisColumn("p95 ms", s -> s.latency.getPercentileMillis(95)),
+                millisColumn("p99 ms", s -> s.latency.getPercentileMillis(99)),
+                millisColumn("Max ms", s -> s.latency.getMaxMillis()),
+                millisColumn("Total ms", s -> s.latency.getTotalMillis()),
+                numberColumn("Rows", TemplateStats::getRows),
+                numberColumn("Bytes", TemplateStats::getBytes),
+                textColumn("SQL", s -> s.template, 500)));
+
+        List<String> poolHeaders = List.of("Pool", "Waits", "Wait p50 ms", "Wait p99 ms", "Wait max ms",
+                "Active", "Idle", "Total", "Pending", "Timeouts");
+        for (int i = 0; i < poolHeaders.size(); i++) {
+            final int colIdx = i;
+            TableColumn<List<String>, String> col = new TableColumn<>(poolHeaders.get(i));
+            col.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().get(colIdx)));
+            poolTable.getColumns().add(col);
+        }
+
+        killTable.getColumns().addAll(List.of(
+                textColumn("Time", e -> e.time.toString(), 180),
+                textColumn("Role", e -> e.role, 70),
+                textColumn("Reason", e -> e.reason, 180),
+                textColumn("Duration ms", e -> String.valueOf(e.durationMillis), 90),
+                textColumn("SQL", e -> e.sql, 400)));
+
+        TabPane tabs = new TabPane(
+                new Tab("Queries", queryTable),
+                new Tab("Pools", poolTable),
+                new Tab("Killed queries", killTable));
+        tabs.setTabClosingPolicy(TabPane.TabClosingPolicy.UNAVAILABLE);
+
+        Button refreshButton = new Button("Refresh");
+        refreshButton.setOnAction(e -> refresh());
+        Button resetButton = new Button("Reset");
+        resetButton.setOnAction(e -> {
+            QueryMetrics.reset();
+            refresh();
+        });
+        Button exportButton = new Button("Export CSV");
+        exportButton.setOnAction(e -> exportCsv());
+        HBox buttons = new HBox(8, refreshButton, resetButton, exportButton);
+        buttons.setAlignment(Pos.CENTER_RIGHT);
+        buttons.setPadding(new Insets(8));
+
+        BorderPane root = new BorderPane(tabs);
+        root.setBottom(buttons);
+        stage.setScene(new Scene(root, 1000, 500));
+    }
+
+    public static void show() {
+        DiagnosticsWindow window = new DiagnosticsWindow();
+        window.refresh();
+
+        Timeline timeline = new Timeline(new KeyFrame(REFRESH_INTERVAL, e -> window.refresh()));
+        timeline.setCycleCount(Timeline.INDEFINITE);
+        timeline.play();
+        window.stage.setOnHidden(e -> timeline.stop());
+        window.stage.show();
+    }
+
+    private void refresh() {
+        queryTable.getItems().setAll(QueryMetrics.getTemplateStats());
+        queryTable.refresh();
+
+        Map<String, LatencyHistogram> poolWait = QueryMetrics.getPoolWait();
+        List<List<String>> poolRows = new ArrayList<>();
+        for (PoolMetrics pool : PoolMetrics.all()) {
+            LatencyHistogram wait = poolWait.getOrDefault(pool.getPoolName(), new LatencyHistogram());
+            poolRows.add(List.of(pool.getPoolName(), String.valueOf(wait.getCount()),
+                    formatMillis(wait.getPercentileMillis(50)), formatMillis(wait.getPercentileMillis(99)),
+                    formatMillis(wait.getMaxMillis()), String.valueOf(pool.getActiveConnections()),
+                    String.valueOf(pool.getIdleConnections()), String.valueOf(pool.getTotalConnections()),
+                    String.valueOf(pool.getPendingThreads()), String.valueOf(pool.getTimeouts())));
+        }
+        poolTable.getItems().setAll(poolRows);
+
+        killTable.getItems().setAll(QueryGovernor.getKillEvents().reversed());
+    }
+
+    private void exportCsv() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export query metrics");
+        chooser.setInitialFileName("query-metrics.csv");
+        File file = chooser.showSaveDialog(stage);
+        if (file == null) return;
+
+        try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            QueryMetrics.writeCsv(out);
+        } catch (IOException e) {
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Export Failed");
+            alert.setHeaderText("Could not write " + file.getName());
+            alert.setContentText(e.getMessage());
+            alert.showAndWait();
+        }
+    }
+
+    private static <T> TableColumn<T, String> textColumn(String title, Function<T, String> value, double width) {
+        TableColumn<T, String> col = new TableColumn<>(title);
+        col.setCellValueFactory(cellData -> new SimpleStringProperty(value.apply(cellData.getValue())));
+        col.setPrefWidth(width);
+        return col;
+    }
+
+    private static <T> TableColumn<T, Long> numberColumn(String title, Function<T, Long> value) {
+        TableColumn<T, Long> col = new TableColumn<>(title);
+        col.setCellValueFactory(cellData -> new SimpleObjectProperty<>(value.apply(cellData.getValue())));
+        col.setPrefWidth(70);
+        return col;
+    }
+
+    private static <T> TableColumn<T, Double> millisColumn(String title, Function<T, Double> value) {
+        TableColumn<T, Double> col = new TableColumn<>(title);
+        col.setCellValueFactory(cellData -> new SimpleObjectProperty<>(
+                Math.round(value.apply(cellData.getValue()) * 10) / 10.0));
+        col.setPrefWidth(70);
+        return col;
+    }
+
+    private static String formatMillis(double millis) {
+        return String.format(Locale.ROOT, "%.1f", millis);
+    }
+}
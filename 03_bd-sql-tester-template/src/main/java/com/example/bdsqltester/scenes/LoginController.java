@@ -1,19 +1,21 @@
 package com.example.bdsqltester.scenes;
 
 import com.example.bdsqltester.HelloApplication;
-import com.example.bdsqltester.datasources.MainDataSource;
+import com.example.bdsqltester.auth.AuthService;
+import com.example.bdsqltester.datasources.DatabaseExecutor;
+import com.example.bdsqltester.grading.GradingWorkerPool;
 import com.example.bdsqltester.scenes.user.UserController;
-import com.example.bdsqltester.dtos.User;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
 import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
 
 import java.io.IOException;
-import java.sql.*;
 
 public class LoginController {
 
@@ -26,33 +28,11 @@ public class LoginController {
     @FXML
     private TextField usernameField;
 
-    private User getUserByUsername(String username) throws SQLException {
-        try (Connection c = MainDataSource.getConnection()) {
-            PreparedStatement stmt = c.prepareStatement("SELECT id, username, password, role FROM users WHERE username = ?");
-            stmt.setString(1, username);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                User user = new User(rs.getString("username"), rs.getString("password"), rs.getString("role"));
-                user.setId(rs.getLong("id"));
-                return user;
-            }
-            return null;
-        }
-    }
+    @FXML
+    private Button loginButton;
 
-    boolean verifyCredentials(String username, String password, String role) throws SQLException {
-        try (Connection c = MainDataSource.getConnection()) {
-            PreparedStatement stmt = c.prepareStatement("SELECT password FROM users WHERE username = ? AND role = ?");
-            stmt.setString(1, username);
-            stmt.setString(2, role.toLowerCase());
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                String dbPassword = rs.getString("password");
-                return dbPassword.equals(password);
-            }
-            return false;
-        }
-    }
+    @FXML
+    private ProgressIndicator loadingIndicator;
 
     @FXML
     void initialize() {
@@ -66,43 +46,43 @@ public class LoginController {
         String password = passwordField.getText();
         String role = selectRole.getValue();
 
-        try {
-            if (verifyCredentials(username, password, role)) {
-                HelloApplication app = HelloApplication.getApplicationInstance();
-                FXMLLoader loader;
-                Scene scene;
-
-                if (role.equals("Admin")) {
-                    app.getPrimaryStage().setTitle("Admin View");
-                    loader = new FXMLLoader(HelloApplication.class.getResource("admin-view.fxml"));
-                    scene = new Scene(loader.load());
-                    app.getPrimaryStage().setScene(scene);
-                } else {
-                    app.getPrimaryStage().setTitle("User View");
-                    loader = new FXMLLoader(HelloApplication.class.getResource("user-view.fxml"));
-                    scene = new Scene(loader.load());
-                    app.getPrimaryStage().setScene(scene);
-                    UserController userController = loader.getController();
-                    try {
-                        User loggedInUser = getUserByUsername(username);
-                        if (loggedInUser != null) {
-                            System.out.println("Logged in user ID in LoginController: " + loggedInUser.getId());
-                            userController.setLoggedInUserId(loggedInUser.getId());
-                        } else {
-                            showAlert("Error", "Gagal","Gagal mendapatkan informasi pengguna setelah login");
-                        }
-                    } catch (SQLException e) {
-                        showAlert("Database Error", "Gagal mendapatkan informasi pengguna.", e.getMessage());
-                    }
-                }
-            } else {
+        setLoading(true);
+        // Satu query untuk id, role dan hash password; session menyimpan id user untuk halaman berikutnya
+        DatabaseExecutor.onFxThread(AuthService.login(username, password, role), session -> {
+            if (session == null) {
+                setLoading(false);
                 showAlert("Login Failed", "Invalid Credentials", "Please check your username and password.");
+            } else if (session.isAdmin()) {
+                // Instance admin boleh membaca kunci jawaban, jadi ikut menilai submission
+                GradingWorkerPool.start(GradingWorkerPool.getAdminWorkers());
+                showScene("Admin View", "admin-view.fxml");
+            } else {
+                FXMLLoader loader = showScene("User View", "user-view.fxml");
+                UserController userController = loader.getController();
+                userController.setLoggedInUserId(session.userId);
             }
-        } catch (SQLException e) {
+        }, e -> {
+            setLoading(false);
             showAlert("Database Error", "Database Connection Failed", "Could not connect to the database. Please try again later.");
+        });
+    }
+
+    private FXMLLoader showScene(String title, String fxml) {
+        HelloApplication app = HelloApplication.getApplicationInstance();
+        FXMLLoader loader = new FXMLLoader(HelloApplication.class.getResource(fxml));
+        try {
+            Scene scene = new Scene(loader.load());
+            app.getPrimaryStage().setTitle(title);
+            app.getPrimaryStage().setScene(scene);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+        return loader;
+    }
+
+    private void setLoading(boolean loading) {
+        loadingIndicator.setVisible(loading);
+        loginButton.setDisable(loading);
     }
 
     private void showAlert(String title, String header, String content) {
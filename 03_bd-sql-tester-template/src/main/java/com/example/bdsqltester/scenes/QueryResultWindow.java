@@ -0,0 +1,230 @@
+package com.example.bdsqltester.scenes;
+
+import com.example.bdsqltester.datasources.DataSourceConfig;
+import com.example.bdsqltester.datasources.DatabaseExecutor;
+import com.example.bdsqltester.datasources.GradingDataSource;
+import com.example.bdsqltester.datasources.ResultCursor;
+import com.example.bdsqltester.datasources.SpillingRowStore;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.ObservableListBase;
+import javafx.geometry.Insets;
+import javafx.geometry.Orientation;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Jendela hasil tombol "Test". Query dijalankan lewat {@link ResultCursor} pada GradingDataSource;
+ * baris diambil per halaman saat user menggulir ke bawah tabel, dengan jumlah baris
+ * yang ditampilkan di bagian bawah jendela. Baris disimpan di {@link SpillingRowStore}, jadi hasil
+ * besar pindah ke file sementara dan tabel hanya membaca baris yang terlihat. Baris ditulis ke store
+ * di thread database, jadi JavaFX Application Thread tidak ikut menulis file saat hasil besar. Menutup jendela
+ * membatalkan query, mengembalikan koneksi ke pool dan menghapus file sementara.
+ */
+public class QueryResultWindow {
+    public static final int PAGE_SIZE = 500;
+    private static final int MAX_ROWS = DataSourceConfig.getInt("results.maxRows", 10_000_000);
+    // Batas heap hanya untuk baris sebelum spill; baris di file sementara dibatasi MAX_SPILLED_BYTES
+    private static final long MAX_BYTES = DataSourceConfig.getLong("results.maxBytes", ResultCursor.DEFAULT_MAX_BYTES);
+    private static final long MAX_SPILLED_BYTES = DataSourceConfig.getLong("results.maxSpilledBytes", 4L * 1024 * 1024 * 1024);
+    private static final int SPILL_THRESHOLD_ROWS = DataSourceConfig.getInt("results.spillThresholdRows", 20_000);
+
+    private final Stage stage = new Stage();
+    private final StackPane root;
+    private final TableView<List<String>> tableView = new TableView<>();
+    private final SpillingRowStore store = new SpillingRowStore(SPILL_THRESHOLD_ROWS);
+    private final StoreRows rows = new StoreRows(store);
+    private final Label statusLabel = new Label();
+    private final ProgressIndicator fetchIndicator = new ProgressIndicator();
+
+    private ResultCursor cursor;
+    private boolean fetching;
+
+    private QueryResultWindow(String title) {
+        stage.setTitle(title);
+
+        Button cancelButton = new Button("Cancel");
+        cancelButton.setOnAction(e -> stage.close());
+        VBox loadingBox = new VBox(10, new ProgressIndicator(), new Label("Running query..."), cancelButton);
+        loadingBox.setAlignment(Pos.CENTER);
+        root = new StackPane(loadingBox);
+
+        stage.setScene(new Scene(root, 800, 600));
+    }
+
+    /**
+     * @param role    role {@link com.example.bdsqltester.datasources.QueryGovernor} untuk batas query
+     * @param onEmpty dipanggil (dan jendela ditutup) jika hasil query kosong; null untuk tetap menampilkan tabel kosong
+     * @param onError dipanggil jika query gagal
+     */
+    public static void show(String title, String sql, String role, Runnable onEmpty, Consumer<Throwable> onError) {
+        QueryResultWindow window = new QueryResultWindow(title);
+        window.open(sql, role, onEmpty, onError);
+    }
+
+    private void open(String sql, String role, Runnable onEmpty, Consumer<Throwable> onError) {
+        DatabaseExecutor.onFxThread(ResultCursor.open(() -> GradingDataSource.getConnection(role), sql,
+                MAX_ROWS, MAX_BYTES, SPILL_THRESHOLD_ROWS, MAX_SPILLED_BYTES), opened -> {
+            cursor = opened;
+            if (!stage.isShowing()) {
+                cursor.close();
+                return;
+            }
+            DatabaseExecutor.onFxThread(fetchIntoStore(), size -> {
+                if (!stage.isShowing()) return;
+                if (size == 0 && onEmpty != null) {
+                    stage.close();
+                    onEmpty.run();
+                    return;
+                }
+                showTable(size);
+            }, error -> {
+                // Jendela sudah ditutup user: store ditutup di tengah append, bukan kesalahan query
+                if (!stage.isShowing()) return;
+                stage.close();
+                onError.accept(error);
+            });
+        }, error -> {
+            stage.close();
+            onError.accept(error);
+        });
+
+        stage.setOnHidden(e -> {
+            if (cursor != null) cursor.close();
+            store.close();
+        });
+        stage.show();
+    }
+
+    /**
+     * Mengambil satu halaman dan menambahkannya ke store di thread database.
+     * Hasilnya jumlah baris di store; TableView baru diberi tahu di FX thread lewat {@link StoreRows#publish}.
+     */
+    private CompletableFuture<Integer> fetchIntoStore() {
+        return cursor.fetch(PAGE_SIZE).thenCompose(page -> DatabaseExecutor.supplyAsync(() -> {
+            for (List<String> row : page) {
+                store.append(row);
+            }
+            return store.size();
+        }));
+    }
+
+    private void showTable(int size) {
+        List<String> headers = cursor.getHeaders();
+        for (int i = 0; i < headers.size(); i++) {
+            final int colIdx = i;
+            TableColumn<List<String>, String> col = new TableColumn<>(headers.get(i));
+            col.setCellValueFactory(cellData ->
+                    new SimpleStringProperty(
+                            cellData.getValue().size() > colIdx ?
+                                    cellData.getValue().get(colIdx) : ""
+                    )
+            );
+            col.setPrefWidth(120);
+            tableView.getColumns().add(col);
+        }
+        rows.publish(size);
+        tableView.setItems(rows);
+
+        fetchIndicator.setPrefSize(16, 16);
+        fetchIndicator.setVisible(false);
+        HBox statusBar = new HBox(8, fetchIndicator, statusLabel);
+        statusBar.setAlignment(Pos.CENTER_LEFT);
+        statusBar.setPadding(new Insets(4, 8, 4, 8));
+
+        BorderPane pane = new BorderPane(tableView);
+        pane.setBottom(statusBar);
+        root.getChildren().setAll(pane);
+        updateStatus();
+
+        // Scroll bar baru tersedia setelah skin tabel dibuat
+        tableView.applyCss();
+        tableView.layout();
+        for (Node node : tableView.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar bar && bar.getOrientation() == Orientation.VERTICAL) {
+                bar.valueProperty().addListener((obs, oldValue, newValue) -> {
+                    if (newValue.doubleValue() >= bar.getMax() * 0.9) fetchNextPage();
+                });
+            }
+        }
+    }
+
+    private void fetchNextPage() {
+        if (fetching || cursor.isExhausted() || cursor.isLimitReached() || !stage.isShowing()) return;
+
+        fetching = true;
+        fetchIndicator.setVisible(true);
+        DatabaseExecutor.onFxThread(fetchIntoStore(), size -> {
+            fetching = false;
+            fetchIndicator.setVisible(false);
+            if (!stage.isShowing()) return;
+            rows.publish(size);
+            updateStatus();
+        }, error -> {
+            fetching = false;
+            fetchIndicator.setVisible(false);
+            statusLabel.setText("Rows: " + rows.size() + " (error: " + error.getMessage() + ")");
+        });
+    }
+
+    private void updateStatus() {
+        String suffix;
+        if (cursor.isLimitReached()) {
+            suffix = " (result too large, stopped after " + rows.size() + " rows)";
+        } else if (cursor.isExhausted()) {
+            suffix = " (all rows loaded)";
+        } else {
+            suffix = " (scroll down to load more)";
+        }
+        if (store.isSpilled()) suffix += " - stored in a temporary file";
+        statusLabel.setText("Rows: " + rows.size() + suffix);
+    }
+
+    /**
+     * Baris di store sebagai ObservableList untuk TableView; hanya bertambah di akhir.
+     * Ukuran list hanya berubah di FX thread lewat publish, walaupun store sudah bertambah di thread database.
+     */
+    private static final class StoreRows extends ObservableListBase<List<String>> {
+        private final SpillingRowStore store;
+        private int size;
+
+        StoreRows(SpillingRowStore store) {
+            this.store = store;
+        }
+
+        void publish(int newSize) {
+            if (newSize <= size) return;
+            int from = size;
+            size = newSize;
+            beginChange();
+            nextAdd(from, newSize);
+            endChange();
+        }
+
+        @Override
+        public List<String> get(int index) {
+            if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+            return store.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
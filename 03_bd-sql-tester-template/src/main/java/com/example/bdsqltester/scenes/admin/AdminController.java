@@ -1,11 +1,28 @@
 package com.example.bdsqltester.scenes.admin;
 
-import com.example.bdsqltester.datasources.GradingDataSource;
+import com.example.bdsqltester.auth.AuthService;
+import com.example.bdsqltester.datasources.AssignmentCatalog;
+import com.example.bdsqltester.datasources.AssignmentRepository;
+import com.example.bdsqltester.datasources.AssignmentStatsRepository;
+import com.example.bdsqltester.datasources.BulkTransfer;
+import com.example.bdsqltester.datasources.DatabaseExecutor;
+import com.example.bdsqltester.datasources.GradeChangeListener;
+import com.example.bdsqltester.datasources.GradeChangeListener.GradeChange;
+import com.example.bdsqltester.datasources.GradeRepository;
+import com.example.bdsqltester.datasources.GradeRepository.GradeSort;
 import com.example.bdsqltester.datasources.MainDataSource;
+import com.example.bdsqltester.datasources.QueryGovernor;
+import com.example.bdsqltester.datasources.UserRepository;
+import com.example.bdsqltester.datasources.UserRepository.UserSort;
 import com.example.bdsqltester.dtos.Assignment;
+import com.example.bdsqltester.dtos.AssignmentStatistics;
 import com.example.bdsqltester.dtos.Grade;
 import com.example.bdsqltester.dtos.User;
-import javafx.beans.property.SimpleDoubleProperty;
+import com.example.bdsqltester.grading.AnswerKeyCache;
+import com.example.bdsqltester.grading.BatchRegrader;
+import com.example.bdsqltester.scenes.DiagnosticsWindow;
+import com.example.bdsqltester.scenes.QueryResultWindow;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleLongProperty;
 import javafx.beans.property.SimpleStringProperty;
@@ -14,15 +31,24 @@ import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
 import javafx.scene.Scene;
+import javafx.scene.chart.BarChart;
+import javafx.scene.chart.CategoryAxis;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
+import java.io.File;
 import java.sql.*;
-import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 
 public class AdminController {
 
@@ -44,7 +70,12 @@ public class AdminController {
     @FXML
     private Button deleteButton;
 
+    @FXML
+    private ProgressIndicator loadingIndicator;
+
     private final ObservableList<Assignment> assignments = FXCollections.observableArrayList();
+    // Kunci jawaban yang tersimpan untuk assignment di form, null sampai detailnya selesai dimuat
+    private String loadedAnswerKey;
 
     @FXML
     public void initialize() {
@@ -84,20 +115,16 @@ public class AdminController {
     }
 
     void refreshAssignmentList() {
-        assignments.clear();
-        try (Connection c = MainDataSource.getConnection();
-             Statement stmt = c.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT * FROM assignments ORDER BY name")) {
-
-            while (rs.next()) {
-                assignments.add(new Assignment(rs));
-            }
-        } catch (Exception e) {
+        loadingIndicator.setVisible(true);
+        DatabaseExecutor.onFxThread(AssignmentCatalog.list(), loaded -> {
+            loadingIndicator.setVisible(false);
+            assignments.setAll(loaded);
+            assignmentList.setItems(assignments);
+            reselectCurrentAssignment();
+        }, e -> {
+            loadingIndicator.setVisible(false);
             showAlert("Error", "Database Error", "Failed to load assignments: " + e.getMessage());
-        }
-
-        assignmentList.setItems(assignments);
-        reselectCurrentAssignment();
+        });
     }
 
     private void reselectCurrentAssignment() {
@@ -117,11 +144,29 @@ public class AdminController {
     void onAssignmentSelected(Assignment assignment) {
         if (assignment == null) return;
 
+        // Pilihan yang sama dipilih ulang setelah daftar dimuat ulang; isi form jangan ditimpa
+        if (String.valueOf(assignment.id).equals(idField.getText()) && loadedAnswerKey != null) return;
+
         idField.setText(String.valueOf(assignment.id));
         nameField.setText(assignment.name);
-        instructionsField.setText(assignment.instructions);
-        answerKeyField.setText(assignment.answerKey);
+        instructionsField.clear();
+        answerKeyField.clear();
+        loadedAnswerKey = null;
         deleteButton.setDisable(false);
+
+        // Instruksi dan kunci jawaban tidak ikut dimuat di daftar, jadi diambil saat dipilih
+        loadingIndicator.setVisible(true);
+        DatabaseExecutor.onFxThread(AssignmentRepository.findById(assignment.id), details -> {
+            loadingIndicator.setVisible(false);
+            if (details == null || !String.valueOf(details.id).equals(idField.getText())) return;
+            nameField.setText(details.name);
+            instructionsField.setText(details.instructions);
+            answerKeyField.setText(details.answerKey);
+            loadedAnswerKey = details.answerKey != null ? details.answerKey : "";
+        }, e -> {
+            loadingIndicator.setVisible(false);
+            showAlert("Error", "Database Error", "Failed to load assignment: " + e.getMessage());
+        });
     }
 
     @FXML
@@ -133,18 +178,159 @@ public class AdminController {
     void onSaveClick(ActionEvent event) {
         if (!validateInput()) return;
 
+        if (!idField.getText().isEmpty() && loadedAnswerKey == null) {
+            showAlert("Please Wait", "Loading Assignment", "The assignment details are still loading.");
+            return;
+        }
+
+        boolean answerKeyChanged = false;
         try (Connection c = MainDataSource.getConnection()) {
             if (idField.getText().isEmpty()) {
                 createNewAssignment(c);
             } else {
+                answerKeyChanged = !Objects.equals(loadedAnswerKey, answerKeyField.getText());
                 updateExistingAssignment(c);
             }
+            loadedAnswerKey = answerKeyField.getText();
             refreshAssignmentList();
         } catch (Exception e) {
             showAlert("Error", "Database Error", "Failed to save assignment: " + e.getMessage());
+            return;
+        }
+
+        if (answerKeyChanged) {
+            Alert confirmation = new Alert(Alert.AlertType.CONFIRMATION,
+                    "The answer key changed. Re-grade all stored submissions for '" + nameField.getText() + "' now?",
+                    ButtonType.YES, ButtonType.NO);
+            confirmation.setHeaderText("Re-grade Submissions");
+            confirmation.showAndWait().ifPresent(response -> {
+                if (response == ButtonType.YES) {
+                    startRegrade();
+                }
+            });
         }
     }
 
+    @FXML
+    void onDiagnosticsClick(ActionEvent event) {
+        DiagnosticsWindow.show();
+    }
+
+    @FXML
+    void onImportUsersClick(ActionEvent event) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import Users (CSV: " + BulkTransfer.USERS_HEADER + ")");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+        File file = chooser.showOpenDialog(assignmentList.getScene().getWindow());
+        if (file == null) return;
+
+        TransferProgress progress = new TransferProgress("Importing " + file.getName());
+        DatabaseExecutor.onFxThread(BulkTransfer.importUsers(file.toPath(), AuthService::hashImportedPassword, progress),
+                result -> progress.finish(String.format("Imported %d of %d users in %.1f s (%d skipped: existing, duplicate or invalid role)",
+                        result.inserted, result.rows, result.elapsedMillis / 1000.0, result.getSkipped())),
+                e -> {
+                    progress.close();
+                    showAlert("Database Error", "Import Failed", e.getMessage());
+                });
+    }
+
+    /** Mengekspor nilai assignment yang sedang dipilih, atau semua assignment jika tidak ada yang dipilih. */
+    @FXML
+    void onExportGradesClick(ActionEvent event) {
+        Long assignmentId = idField.getText().isEmpty() ? null : Long.parseLong(idField.getText());
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle(assignmentId != null ? "Export Grades - " + nameField.getText() : "Export Grades - All Assignments");
+        chooser.setInitialFileName(assignmentId != null ? "grades-" + assignmentId + ".csv" : "grades.csv");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+        File file = chooser.showSaveDialog(assignmentList.getScene().getWindow());
+        if (file == null) return;
+
+        TransferProgress progress = new TransferProgress("Exporting " + file.getName());
+        DatabaseExecutor.onFxThread(BulkTransfer.exportGrades(file.toPath(), assignmentId, progress),
+                result -> progress.finish(String.format("Exported %d grades (%.1f MB) in %.1f s",
+                        result.rows, result.bytes / 1e6, result.elapsedMillis / 1000.0)),
+                e -> {
+                    progress.close();
+                    showAlert("Database Error", "Export Failed", e.getMessage());
+                });
+    }
+
+    /** Jendela progress untuk import/export; onProgress boleh dipanggil dari thread mana pun. */
+    private static class TransferProgress implements BulkTransfer.ProgressListener {
+        private final Stage stage = new Stage();
+        private final ProgressBar progressBar = new ProgressBar(ProgressBar.INDETERMINATE_PROGRESS);
+        private final Label label = new Label("Starting...");
+
+        TransferProgress(String title) {
+            stage.setTitle(title);
+            progressBar.setPrefWidth(360);
+            VBox vbox = new VBox(10, label, progressBar);
+            vbox.setPadding(new Insets(16));
+            stage.setScene(new Scene(vbox));
+            stage.show();
+        }
+
+        @Override
+        public void onProgress(long bytes, long totalBytes) {
+            Platform.runLater(() -> {
+                if (totalBytes > 0) {
+                    progressBar.setProgress((double) bytes / totalBytes);
+                    label.setText(String.format("%.1f / %.1f MB", bytes / 1e6, totalBytes / 1e6));
+                } else {
+                    label.setText(String.format("%.1f MB", bytes / 1e6));
+                }
+            });
+        }
+
+        void finish(String message) {
+            progressBar.setProgress(1);
+            label.setText(message);
+        }
+
+        void close() {
+            stage.close();
+        }
+    }
+
+    @FXML
+    void onRegradeClick(ActionEvent event) {
+        if (idField.getText().isEmpty()) {
+            showAlert("Error", "No Assignment Selected", "Please select an assignment to re-grade.");
+            return;
+        }
+        startRegrade();
+    }
+
+    private void startRegrade() {
+        long assignmentId = Long.parseLong(idField.getText());
+        String answerKey = answerKeyField.getText();
+
+        Stage progressStage = new Stage();
+        progressStage.setTitle("Re-grading Assignment #" + assignmentId);
+        ProgressBar progressBar = new ProgressBar(0);
+        progressBar.setPrefWidth(360);
+        Label progressLabel = new Label("Loading submissions...");
+        VBox vbox = new VBox(10, progressLabel, progressBar);
+        vbox.setPadding(new Insets(16));
+        progressStage.setScene(new Scene(vbox));
+        progressStage.show();
+
+        BatchRegrader regrader = new BatchRegrader(assignmentId, answerKey, (graded, total, perSecond) ->
+                Platform.runLater(() -> {
+                    progressBar.setProgress(total > 0 ? (double) graded / total : 1);
+                    progressLabel.setText(String.format("Graded %d / %d submissions (%.1f/s)", graded, total, perSecond));
+                }));
+
+        DatabaseExecutor.onFxThread(DatabaseExecutor.supplyAsync(regrader::run), result -> {
+            progressBar.setProgress(1);
+            progressLabel.setText(String.format("Re-graded %d submissions for %d students in %.1f s (%.1f/s)",
+                    result.submissions, result.users, result.elapsedMillis / 1000.0, result.submissionsPerSecond()));
+        }, e -> {
+            progressStage.close();
+            showAlert("Database Error", "Re-grade Failed", e.getMessage());
+        });
+    }
+
     private boolean validateInput() {
         if (nameField.getText().trim().isEmpty()) {
             showAlert("Validation Error", "Missing Name", "Assignment name cannot be empty");
@@ -178,6 +364,7 @@ public class AdminController {
             stmt.setLong(4, Long.parseLong(idField.getText()));
             stmt.executeUpdate();
         }
+        AnswerKeyCache.invalidate(Long.parseLong(idField.getText()));
     }
 
     @FXML
@@ -186,20 +373,62 @@ public class AdminController {
             showAlert("Error", "No Assignment Selected", "Please select an assignment to view grades.");
             return;
         }
+        long assignmentId = Long.parseLong(idField.getText());
 
         Stage gradeStage = new Stage();
-        gradeStage.setTitle("Grades for Assignment #" + idField.getText());
+        gradeStage.setTitle("Grades for Assignment #" + assignmentId);
+
+        PagedTable<Grade, GradeSort> gradeTable = createGradeTable(assignmentId);
+        gradeTable.reload();
 
-        TableView<Grade> gradeTable = createGradeTable();
-        gradeTable.setItems(fetchGradeFromDatabase());
+        // Perubahan nilai diterapkan per baris selama jendela terbuka, tanpa memuat ulang tabel
+        GradeChangeListener.Subscription subscription = GradeChangeListener.subscribe(
+                changes -> applyGradeChanges(gradeTable, assignmentId, changes),
+                gradeTable::reload);
+        gradeStage.setOnHidden(e -> subscription.close());
 
-        StackPane root = new StackPane(gradeTable);
+        StackPane root = new StackPane(gradeTable.getNode());
         gradeStage.setScene(new Scene(root, 600, 400));
         gradeStage.show();
     }
 
-    private TableView<Grade> createGradeTable() {
-        TableView<Grade> table = new TableView<>();
+    private void applyGradeChanges(PagedTable<Grade, GradeSort> gradeTable, long assignmentId, List<GradeChange> changes) {
+        List<Grade> gradeList = gradeTable.getItems();
+        for (GradeChange change : changes) {
+            if (change.assignmentId != assignmentId) continue;
+
+            int index = -1;
+            for (int i = 0; i < gradeList.size(); i++) {
+                if (gradeList.get(i).getUserId() == change.userId) {
+                    index = i;
+                    break;
+                }
+            }
+            if (change.isDelete()) {
+                if (index >= 0) gradeList.remove(index);
+                continue;
+            }
+            Grade grade = new Grade(change.userId, assignmentId, change.newGrade);
+            grade.setUsername(change.username);
+            if (index >= 0) {
+                gradeList.set(index, grade);
+            } else if (gradeTable.isExhausted() && matchesFilter(change.username, gradeTable.getFilter())) {
+                // Baris baru yang belum dimuat akan muncul sendiri di halaman berikutnya
+                gradeList.add(grade);
+            }
+        }
+    }
+
+    private static boolean matchesFilter(String username, String filter) {
+        return filter.isEmpty() || (username != null && username.toLowerCase().contains(filter.toLowerCase()));
+    }
+
+    private PagedTable<Grade, GradeSort> createGradeTable(long assignmentId) {
+        PagedTable<Grade, GradeSort> table = new PagedTable<>(
+                (filter, sort, descending, after, limit) ->
+                        GradeRepository.findPage(assignmentId, filter, sort, descending, after, limit),
+                GradeSort.USERNAME,
+                e -> showAlert("Database Error", "Failed to load grades", e.getMessage()));
 
         TableColumn<Grade, Long> userIdCol = new TableColumn<>("User ID");
         userIdCol.setCellValueFactory(new PropertyValueFactory<>("userId"));
@@ -210,107 +439,119 @@ public class AdminController {
         TableColumn<Grade, Double> gradeCol = new TableColumn<>("Grade");
         gradeCol.setCellValueFactory(new PropertyValueFactory<>("score"));
 
-        table.getColumns().addAll(userIdCol, usernameCol, gradeCol);
+        table.addColumn(userIdCol, GradeSort.USER_ID);
+        table.addColumn(usernameCol, GradeSort.USERNAME);
+        table.addColumn(gradeCol, GradeSort.GRADE);
         return table;
     }
 
-    private ObservableList<Grade> fetchGradeFromDatabase() {
-        ObservableList<Grade> gradeList = FXCollections.observableArrayList();
-        String sql = "SELECT g.user_id, u.username, g.grade " +
-                "FROM grades g JOIN users u ON g.user_id = u.id " +
-                "WHERE g.assignment_id = ?";
-
-        try (Connection c = MainDataSource.getConnection();
-             PreparedStatement stmt = c.prepareStatement(sql)) {
-
-            stmt.setLong(1, Long.parseLong(idField.getText()));
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    Grade grade = new Grade();
-                    grade.setUserId(rs.getLong("user_id"));
-                    grade.setScore(rs.getDouble("grade"));
-                    grade.setUsername(rs.getString("username"));
-                    grade.setAssignmentId(Long.parseLong(idField.getText()));
-                    gradeList.add(grade);
-                }
-            }
-        } catch (SQLException e) {
-            showAlert("Database Error", "Failed to load grades", e.getMessage());
-        }
-        return gradeList;
-    }
-
     @FXML
     void onShowCompletionClick(ActionEvent event) {
         if (idField.getText().isEmpty()) {
             showAlert("Error", "No Assignment Selected", "Please select an assignment to view completion status.");
             return;
         }
+        long assignmentId = Long.parseLong(idField.getText());
 
         Stage completionStage = new Stage();
-        completionStage.setTitle("Completion Status for Assignment #" + idField.getText());
+        completionStage.setTitle("Completion Status for Assignment #" + assignmentId);
 
         TabPane tabPane = new TabPane();
 
+        VBox statsBox = new VBox(10);
+        statsBox.setPadding(new Insets(10));
         Tab statsTab = new Tab("Statistics");
-        statsTab.setContent(createCompletionStatsView());
+        statsTab.setContent(new StackPane(statsBox));
+        loadCompletionStats(statsBox, assignmentId);
 
+        PagedTable<User, UserSort> missingStudents = createMissingStudentsView(assignmentId);
         Tab missingTab = new Tab("Missing Students");
-        missingTab.setContent(createMissingStudentsView());
+        missingTab.setContent(missingStudents.getNode());
+        missingStudents.reload();
 
         tabPane.getTabs().addAll(statsTab, missingTab);
 
+        // Statistik dibaca ulang dari assignment_stats (satu baris); mahasiswa yang baru
+        // mendapat nilai dihapus dari daftar tanpa memuat ulang daftar
+        GradeChangeListener.Subscription subscription = GradeChangeListener.subscribe(changes -> {
+            boolean affected = false;
+            boolean reloadMissing = false;
+            for (GradeChange change : changes) {
+                if (change.assignmentId != assignmentId) continue;
+                affected = true;
+                if (change.isDelete()) {
+                    reloadMissing = true;
+                } else if (change.oldGrade == null) {
+                    missingStudents.getItems().removeIf(user -> user.getId() == change.userId);
+                }
+            }
+            if (affected) loadCompletionStats(statsBox, assignmentId);
+            if (reloadMissing) missingStudents.reload();
+        }, () -> {
+            loadCompletionStats(statsBox, assignmentId);
+            missingStudents.reload();
+        });
+        completionStage.setOnHidden(e -> subscription.close());
+
         completionStage.setScene(new Scene(tabPane, 600, 400));
         completionStage.show();
     }
 
-    private StackPane createCompletionStatsView() {
-        VBox vbox = new VBox(10);
-        vbox.setPadding(new Insets(10));
-
-        try (Connection c = MainDataSource.getConnection()) {
-            String totalStudentsSql = "SELECT COUNT(*) FROM users WHERE role = 'student'";
-            int totalStudents = 0;
-            try (Statement stmt = c.createStatement();
-                 ResultSet rs = stmt.executeQuery(totalStudentsSql)) {
-                if (rs.next()) {
-                    totalStudents = rs.getInt(1);
-                }
-            }
+    private void loadCompletionStats(VBox vbox, long assignmentId) {
+        if (vbox.getChildren().isEmpty()) {
+            vbox.getChildren().add(new ProgressIndicator());
+        }
 
-            String completedSql = "SELECT COUNT(DISTINCT user_id) FROM grades WHERE assignment_id = ?";
-            int completedStudents = 0;
-            try (PreparedStatement stmt = c.prepareStatement(completedSql)) {
-                stmt.setLong(1, Long.parseLong(idField.getText()));
-                try (ResultSet rs = stmt.executeQuery()) {
-                    if (rs.next()) {
-                        completedStudents = rs.getInt(1);
-                    }
-                }
+        DatabaseExecutor.onFxThread(AssignmentStatsRepository.findByAssignment(assignmentId), stats -> {
+            vbox.getChildren().clear();
+            if (stats == null) {
+                vbox.getChildren().add(new Label("Assignment not found"));
+                return;
             }
-
+            long totalStudents = stats.totalStudents;
+            long completedStudents = stats.completedCount;
             double percentage = totalStudents > 0 ? (completedStudents * 100.0) / totalStudents : 0;
 
             Label totalLabel = new Label("Total Students: " + totalStudents);
             Label completedLabel = new Label("Completed: " + completedStudents);
-            Label missingLabel = new Label("Not Completed: " + (totalStudents - completedStudents));
+            Label missingLabel = new Label("Not Completed: " + Math.max(totalStudents - completedStudents, 0));
             Label percentageLabel = new Label(String.format("Completion Rate: %.1f%%", percentage));
+            Label averageLabel = new Label(String.format("Average Grade: %.1f", stats.getAverageGrade()));
 
             percentageLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14;");
 
-            vbox.getChildren().addAll(totalLabel, completedLabel, missingLabel, percentageLabel);
-
-        } catch (SQLException e) {
+            vbox.getChildren().addAll(totalLabel, completedLabel, missingLabel, percentageLabel, averageLabel,
+                    createHistogramChart(stats));
+        }, e -> {
+            vbox.getChildren().setAll(new Label("Error loading data"));
             showAlert("Database Error", "Failed to load completion stats", e.getMessage());
-            vbox.getChildren().add(new Label("Error loading data"));
+        });
+    }
+
+    private BarChart<String, Number> createHistogramChart(AssignmentStatistics stats) {
+        CategoryAxis xAxis = new CategoryAxis();
+        xAxis.setLabel("Grade");
+        NumberAxis yAxis = new NumberAxis();
+        yAxis.setLabel("Students");
+
+        XYChart.Series<String, Number> series = new XYChart.Series<>();
+        for (int i = 0; i < AssignmentStatistics.BUCKETS; i++) {
+            series.getData().add(new XYChart.Data<>(AssignmentStatistics.bucketLabel(i), stats.histogram[i]));
         }
 
-        return new StackPane(vbox);
+        BarChart<String, Number> chart = new BarChart<>(xAxis, yAxis);
+        chart.setLegendVisible(false);
+        chart.setAnimated(false);
+        chart.getData().add(series);
+        return chart;
     }
 
-    private StackPane createMissingStudentsView() {
-        TableView<User> table = new TableView<>();
+    private PagedTable<User, UserSort> createMissingStudentsView(long assignmentId) {
+        PagedTable<User, UserSort> table = new PagedTable<>(
+                (filter, sort, descending, after, limit) ->
+                        UserRepository.findStudentsWithoutGrade(assignmentId, filter, sort, descending, after, limit),
+                UserSort.USERNAME,
+                e -> showAlert("Database Error", "Failed to load missing students", e.getMessage()));
 
         TableColumn<User, Long> idCol = new TableColumn<>("ID");
         idCol.setCellValueFactory(new PropertyValueFactory<>("id"));
@@ -318,97 +559,110 @@ public class AdminController {
         TableColumn<User, String> usernameCol = new TableColumn<>("Username");
         usernameCol.setCellValueFactory(new PropertyValueFactory<>("username"));
 
-        table.getColumns().addAll(idCol, usernameCol);
+        table.addColumn(idCol, UserSort.ID);
+        table.addColumn(usernameCol, UserSort.USERNAME);
+        return table;
+    }
 
-        try (Connection c = MainDataSource.getConnection()) {
-            String sql = "SELECT u.id, u.username FROM users u " +
-                    "WHERE u.role = 'student' AND u.id NOT IN " +
-                    "(SELECT g.user_id FROM grades g WHERE g.assignment_id = ?) " +
-                    "ORDER BY u.username";
-
-            ObservableList<User> missingStudents = FXCollections.observableArrayList();
-
-            try (PreparedStatement stmt = c.prepareStatement(sql)) {
-                stmt.setLong(1, Long.parseLong(idField.getText()));
-
-                try (ResultSet rs = stmt.executeQuery()) {
-                    while (rs.next()) {
-                        User user = new User();
-                        user.setId(rs.getLong("id"));
-                        user.setUsername(rs.getString("username"));
-                        missingStudents.add(user);
-                    }
-                }
-            }
+    @FXML
+    void onShowAverageGradesClick(ActionEvent event) {
+        Stage analyticsStage = new Stage();
+        analyticsStage.setTitle("Grade Analytics");
 
-            table.setItems(missingStudents);
+        TableView<AssignmentStatistics> analyticsTable = createAnalyticsTable();
+        StackPane chartPane = new StackPane(new Label("Select an assignment to see its grade distribution"));
+        analyticsTable.getSelectionModel().selectedItemProperty().addListener((obs, oldStats, stats) -> {
+            if (stats != null) chartPane.getChildren().setAll(createHistogramChart(stats));
+        });
+        fetchAnalyticsFromDatabase(analyticsTable);
 
-        } catch (SQLException e) {
-            showAlert("Database Error", "Failed to load missing students", e.getMessage());
-        }
+        // Statistik dipelihara trigger di database; setiap perubahan nilai cukup membaca ulang
+        // satu baris assignment_stats untuk assignment tersebut
+        GradeChangeListener.Subscription subscription = GradeChangeListener.subscribe(changes -> {
+            changes.stream().map(change -> change.assignmentId).distinct()
+                    .forEach(assignmentId -> refreshAnalyticsRow(analyticsTable, assignmentId));
+        }, () -> fetchAnalyticsFromDatabase(analyticsTable));
+        analyticsStage.setOnHidden(e -> subscription.close());
 
-        return new StackPane(table);
+        SplitPane root = new SplitPane(analyticsTable, chartPane);
+        root.setOrientation(Orientation.VERTICAL);
+        analyticsStage.setScene(new Scene(root, 800, 600));
+        analyticsStage.show();
     }
 
-    @FXML
-    void onShowAverageGradesClick(ActionEvent event) {
-        Stage averageGradeStage = new Stage();
-        averageGradeStage.setTitle("Average Grade per Task");
+    private TableView<AssignmentStatistics> createAnalyticsTable() {
+        TableView<AssignmentStatistics> table = new TableView<>();
 
-        TableView<TaskAverageGrade> averageGradeTable = createAverageGradeTable();
-        averageGradeTable.setItems(fetchAverageGradesFromDatabase());
+        TableColumn<AssignmentStatistics, String> assignmentNameCol = new TableColumn<>("Assignment");
+        assignmentNameCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().assignmentName));
 
-        StackPane root = new StackPane(averageGradeTable);
-        averageGradeStage.setScene(new Scene(root, 600, 400));
-        averageGradeStage.show();
-    }
+        TableColumn<AssignmentStatistics, String> averageGradeCol = new TableColumn<>("Avg Grade");
+        averageGradeCol.setCellValueFactory(cellData ->
+                new SimpleStringProperty(String.format("%.1f", cellData.getValue().getAverageGrade())));
 
-    private TableView<TaskAverageGrade> createAverageGradeTable() {
-        TableView<TaskAverageGrade> table = new TableView<>();
+        TableColumn<AssignmentStatistics, Integer> medianCol = new TableColumn<>("Median");
+        medianCol.setCellValueFactory(cellData -> new SimpleIntegerProperty(cellData.getValue().getMedian()).asObject());
 
-        TableColumn<TaskAverageGrade, String> assignmentNameCol = new TableColumn<>("Assignment");
-        assignmentNameCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getAssignmentName()));
+        TableColumn<AssignmentStatistics, Integer> p10Col = new TableColumn<>("P10");
+        p10Col.setCellValueFactory(cellData -> new SimpleIntegerProperty(cellData.getValue().getPercentile(10)).asObject());
 
-        TableColumn<TaskAverageGrade, Double> averageGradeCol = new TableColumn<>("Avg Grade");
-        averageGradeCol.setCellValueFactory(cellData -> new SimpleDoubleProperty(cellData.getValue().getAverageGrade()).asObject());
+        TableColumn<AssignmentStatistics, Integer> p90Col = new TableColumn<>("P90");
+        p90Col.setCellValueFactory(cellData -> new SimpleIntegerProperty(cellData.getValue().getPercentile(90)).asObject());
 
-        TableColumn<TaskAverageGrade, Integer> completedCol = new TableColumn<>("Completed");
-        completedCol.setCellValueFactory(cellData -> new SimpleIntegerProperty(cellData.getValue().getCompletedCount()).asObject());
+        TableColumn<AssignmentStatistics, String> stdDevCol = new TableColumn<>("Std Dev");
+        stdDevCol.setCellValueFactory(cellData ->
+                new SimpleStringProperty(String.format("%.1f", cellData.getValue().getStandardDeviation())));
 
-        TableColumn<TaskAverageGrade, Integer> totalCol = new TableColumn<>("Total Students");
-        totalCol.setCellValueFactory(cellData -> new SimpleIntegerProperty(cellData.getValue().getTotalStudents()).asObject());
+        TableColumn<AssignmentStatistics, Long> completedCol = new TableColumn<>("Completed");
+        completedCol.setCellValueFactory(cellData -> new SimpleLongProperty(cellData.getValue().completedCount).asObject());
 
-        table.getColumns().addAll(assignmentNameCol, averageGradeCol, completedCol, totalCol);
+        TableColumn<AssignmentStatistics, Long> totalCol = new TableColumn<>("Total Students");
+        totalCol.setCellValueFactory(cellData -> new SimpleLongProperty(cellData.getValue().totalStudents).asObject());
+
+        table.getColumns().setAll(List.of(assignmentNameCol, averageGradeCol, medianCol, p10Col, p90Col, stdDevCol,
+                completedCol, totalCol));
         return table;
     }
 
-    private ObservableList<TaskAverageGrade> fetchAverageGradesFromDatabase() {
-        ObservableList<TaskAverageGrade> averageGradeList = FXCollections.observableArrayList();
-        String sql = "SELECT a.id, a.name AS assignment_name, AVG(g.grade) AS average_grade, " +
-                "COUNT(DISTINCT g.user_id) AS completed_count, " +
-                "(SELECT COUNT(*) FROM users WHERE role = 'student') AS total_students " +
-                "FROM assignments a " +
-                "LEFT JOIN grades g ON a.id = g.assignment_id " +
-                "GROUP BY a.id, a.name " +
-                "ORDER BY a.name";
-
-        try (Connection c = MainDataSource.getConnection();
-             Statement stmt = c.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                TaskAverageGrade averageGrade = new TaskAverageGrade();
-                averageGrade.setAssignmentName(rs.getString("assignment_name"));
-                averageGrade.setAverageGrade(rs.getDouble("average_grade"));
-                averageGrade.setCompletedCount(rs.getInt("completed_count"));
-                averageGrade.setTotalStudents(rs.getInt("total_students"));
-                averageGradeList.add(averageGrade);
+    private void fetchAnalyticsFromDatabase(TableView<AssignmentStatistics> table) {
+        Node placeholder = table.getPlaceholder();
+        table.setPlaceholder(new ProgressIndicator());
+
+        DatabaseExecutor.onFxThread(AssignmentStatsRepository.findAll(), statsList -> {
+            table.setPlaceholder(placeholder);
+            AssignmentStatistics selected = table.getSelectionModel().getSelectedItem();
+            table.getItems().setAll(statsList);
+            if (selected != null) selectAnalyticsRow(table, selected.assignmentId);
+        }, e -> {
+            table.setPlaceholder(placeholder);
+            showAlert("Database Error", "Failed to load grade analytics", e.getMessage());
+        });
+    }
+
+    private void refreshAnalyticsRow(TableView<AssignmentStatistics> table, long assignmentId) {
+        DatabaseExecutor.onFxThread(AssignmentStatsRepository.findByAssignment(assignmentId), stats -> {
+            List<AssignmentStatistics> items = table.getItems();
+            for (int i = 0; i < items.size(); i++) {
+                if (items.get(i).assignmentId != assignmentId) continue;
+                boolean selected = table.getSelectionModel().getSelectedIndex() == i;
+                if (stats == null) {
+                    items.remove(i);
+                } else {
+                    items.set(i, stats);
+                    if (selected) table.getSelectionModel().select(i);
+                }
+                return;
             }
+        }, e -> { });
+    }
 
-        } catch (SQLException e) {
-            showAlert("Database Error", "Failed to load average grades", e.getMessage());
+    private void selectAnalyticsRow(TableView<AssignmentStatistics> table, long assignmentId) {
+        for (AssignmentStatistics stats : table.getItems()) {
+            if (stats.assignmentId == assignmentId) {
+                table.getSelectionModel().select(stats);
+                return;
+            }
         }
-        return averageGradeList;
     }
 
     @FXML
@@ -418,59 +672,9 @@ public class AdminController {
             return;
         }
 
-        Stage stage = new Stage();
-        stage.setTitle("Query Results - " + nameField.getText());
-
-        TableView<ArrayList<String>> tableView = new TableView<>();
-        ObservableList<ArrayList<String>> data = FXCollections.observableArrayList();
-
-        try (Connection conn = GradingDataSource.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(answerKeyField.getText())) {
-
-            ResultSetMetaData metaData = rs.getMetaData();
-            createTableColumns(tableView, metaData);
-            populateTableData(data, rs, metaData);
-
-            if (data.isEmpty()) {
-                showAlert("Information", "No Results", "Query executed successfully but returned no data.");
-                return;
-            }
-
-            tableView.setItems(data);
-            stage.setScene(new Scene(new StackPane(tableView), 800, 600));
-            stage.show();
-
-        } catch (SQLException e) {
-            showAlert("Database Error", "Query Failed", "SQL Error: " + e.getMessage());
-        }
-    }
-
-    private void createTableColumns(TableView<ArrayList<String>> tableView, ResultSetMetaData metaData) throws SQLException {
-        for (int i = 1; i <= metaData.getColumnCount(); i++) {
-            final int colIdx = i - 1;
-            String header = metaData.getColumnLabel(i);
-
-            TableColumn<ArrayList<String>, String> col = new TableColumn<>(header);
-            col.setCellValueFactory(cellData ->
-                    new SimpleStringProperty(
-                            cellData.getValue().size() > colIdx ?
-                                    cellData.getValue().get(colIdx) : ""
-                    )
-            );
-            col.setPrefWidth(120);
-            tableView.getColumns().add(col);
-        }
-    }
-
-    private void populateTableData(ObservableList<ArrayList<String>> data, ResultSet rs, ResultSetMetaData metaData) throws SQLException {
-        while (rs.next()) {
-            ArrayList<String> row = new ArrayList<>();
-            for (int i = 1; i <= metaData.getColumnCount(); i++) {
-                row.add(rs.getString(i) != null ? rs.getString(i) : "");
-            }
-            data.add(row);
-        }
+        QueryResultWindow.show("Query Results - " + nameField.getText(), answerKeyField.getText(), QueryGovernor.ROLE_ADMIN,
+                () -> showAlert("Information", "No Results", "Query executed successfully but returned no data."),
+                e -> showAlert("Database Error", "Query Failed", "SQL Error: " + e.getMessage()));
     }
 
     @FXML
@@ -523,7 +727,9 @@ public class AdminController {
         String sql = "DELETE FROM assignments WHERE id = ?";
         try (PreparedStatement stmt = c.prepareStatement(sql)) {
             stmt.setLong(1, Long.parseLong(idField.getText()));
-            return stmt.executeUpdate();
+            int deleted = stmt.executeUpdate();
+            AnswerKeyCache.invalidate(Long.parseLong(idField.getText()));
+            return deleted;
         }
     }
 
@@ -532,6 +738,7 @@ public class AdminController {
         nameField.clear();
         instructionsField.clear();
         answerKeyField.clear();
+        loadedAnswerKey = null;
         deleteButton.setDisable(true);
         assignmentList.getSelectionModel().clearSelection();
     }
@@ -543,66 +750,4 @@ public class AdminController {
         alert.setContentText(content);
         alert.showAndWait();
     }
-
-    public static class TaskAverageGrade {
-        private final SimpleStringProperty assignmentName;
-        private final SimpleDoubleProperty averageGrade;
-        private final SimpleIntegerProperty completedCount;
-        private final SimpleIntegerProperty totalStudents;
-
-        public TaskAverageGrade() {
-            this.assignmentName = new SimpleStringProperty();
-            this.averageGrade = new SimpleDoubleProperty();
-            this.completedCount = new SimpleIntegerProperty();
-            this.totalStudents = new SimpleIntegerProperty();
-        }
-
-        public String getAssignmentName() {
-            return assignmentName.get();
-        }
-
-        public SimpleStringProperty assignmentNameProperty() {
-            return assignmentName;
-        }
-
-        public void setAssignmentName(String assignmentName) {
-            this.assignmentName.set(assignmentName);
-        }
-
-        public double getAverageGrade() {
-            return averageGrade.get();
-        }
-
-        public SimpleDoubleProperty averageGradeProperty() {
-            return averageGrade;
-        }
-
-        public void setAverageGrade(double averageGrade) {
-            this.averageGrade.set(averageGrade);
-        }
-
-        public int getCompletedCount() {
-            return completedCount.get();
-        }
-
-        public SimpleIntegerProperty completedCountProperty() {
-            return completedCount;
-        }
-
-        public void setCompletedCount(int completedCount) {
-            this.completedCount.set(completedCount);
-        }
-
-        public int getTotalStudents() {
-            return totalStudents.get();
-        }
-
-        public SimpleIntegerProperty totalStudentsProperty() {
-            return totalStudents;
-        }
-
-        public void setTotalStudents(int totalStudents) {
-            this.totalStudents.set(totalStudents);
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,185 @@
+package com.example.bdsqltester.scenes.admin;
+
+import com.example.bdsqltester.datasources.DatabaseExecutor;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Orientation;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.util.Duration;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * TableView yang memuat baris per halaman dari database (keyset pagination). Klik header kolom
+ * mengganti ORDER BY di server dan memuat ulang dari halaman pertama, filter username juga
+ * dijalankan di server, dan halaman berikutnya diambil saat user menggulir ke bawah tabel.
+ *
+ * @param <T> tipe baris
+ * @param <S> kunci urutan yang dimengerti repository
+ */
+final class PagedTable<T, S> {
+    static final int PAGE_SIZE = 200;
+
+    /** Mengambil paling banyak limit baris setelah baris after (null untuk halaman pertama). */
+    interface PageSource<T, S> {
+        CompletableFuture<List<T>> fetch(String filter, S sort, boolean descending, T after, int limit);
+    }
+
+    private final TableView<T> table = new TableView<>();
+    private final TextField filterField = new TextField();
+    private final Label statusLabel = new Label();
+    private final ProgressIndicator fetchIndicator = new ProgressIndicator();
+    private final PauseTransition filterDelay = new PauseTransition(Duration.millis(300));
+    private final Map<TableColumn<T, ?>, S> sortKeys = new HashMap<>();
+    private final PageSource<T, S> source;
+    private final S defaultSort;
+    private final Consumer<Throwable> onError;
+
+    private S loadedSort;
+    private boolean loadedDescending;
+    private String loadedFilter = "";
+    // Dinaikkan setiap kali dimuat ulang, supaya halaman dari urutan atau filter lama diabaikan
+    private long generation;
+    private boolean fetching;
+    private boolean exhausted;
+
+    PagedTable(PageSource<T, S> source, S defaultSort, Consumer<Throwable> onError) {
+        this.source = source;
+        this.defaultSort = defaultSort;
+        this.onError = onError;
+        this.loadedSort = defaultSort;
+
+        // Urutan diterapkan di database, bukan pada baris yang sudah dimuat
+        table.setSortPolicy(t -> {
+            if (!Objects.equals(currentSort(), loadedSort) || currentDescending() != loadedDescending) reload();
+            return true;
+        });
+        filterField.setPromptText("Filter username");
+        filterDelay.setOnFinished(e -> {
+            if (!filterField.getText().trim().equals(loadedFilter)) reload();
+        });
+        filterField.textProperty().addListener((obs, oldValue, newValue) -> filterDelay.playFromStart());
+
+        // Scroll bar baru tersedia setelah skin tabel dibuat
+        table.skinProperty().addListener((obs, oldSkin, skin) -> {
+            if (skin != null) Platform.runLater(this::watchScrollBar);
+        });
+    }
+
+    /** sortKey null berarti kolom tidak bisa diurutkan. */
+    void addColumn(TableColumn<T, ?> column, S sortKey) {
+        if (sortKey != null) {
+            sortKeys.put(column, sortKey);
+        } else {
+            column.setSortable(false);
+        }
+        table.getColumns().add(column);
+    }
+
+    List<T> getItems() {
+        return table.getItems();
+    }
+
+    String getFilter() {
+        return loadedFilter;
+    }
+
+    /** true jika semua baris untuk urutan dan filter saat ini sudah dimuat. */
+    boolean isExhausted() {
+        return exhausted;
+    }
+
+    Node getNode() {
+        HBox.setHgrow(filterField, Priority.ALWAYS);
+        HBox filterBar = new HBox(8, filterField);
+        filterBar.setPadding(new Insets(4, 8, 4, 8));
+
+        fetchIndicator.setPrefSize(16, 16);
+        fetchIndicator.setVisible(false);
+        HBox statusBar = new HBox(8, fetchIndicator, statusLabel);
+        statusBar.setAlignment(Pos.CENTER_LEFT);
+        statusBar.setPadding(new Insets(4, 8, 4, 8));
+
+        BorderPane pane = new BorderPane(table);
+        pane.setTop(filterBar);
+        pane.setBottom(statusBar);
+        return pane;
+    }
+
+    /** Membuang baris yang sudah dimuat dan mengambil halaman pertama lagi. */
+    void reload() {
+        generation++;
+        loadedSort = currentSort();
+        loadedDescending = currentDescending();
+        loadedFilter = filterField.getText().trim();
+        exhausted = false;
+        fetching = false;
+        table.getItems().clear();
+        fetchNextPage();
+    }
+
+    private void fetchNextPage() {
+        if (fetching || exhausted) return;
+
+        long requested = generation;
+        List<T> items = table.getItems();
+        T after = items.isEmpty() ? null : items.get(items.size() - 1);
+        fetching = true;
+        fetchIndicator.setVisible(true);
+        DatabaseExecutor.onFxThread(source.fetch(loadedFilter, loadedSort, loadedDescending, after, PAGE_SIZE), page -> {
+            if (requested != generation) return;
+            fetching = false;
+            fetchIndicator.setVisible(false);
+            exhausted = page.size() < PAGE_SIZE;
+            items.addAll(page);
+            updateStatus();
+        }, error -> {
+            if (requested != generation) return;
+            fetching = false;
+            fetchIndicator.setVisible(false);
+            statusLabel.setText("Rows: " + items.size() + " (error)");
+            onError.accept(error);
+        });
+    }
+
+    private void watchScrollBar() {
+        for (Node node : table.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar bar && bar.getOrientation() == Orientation.VERTICAL) {
+                bar.valueProperty().addListener((obs, oldValue, newValue) -> {
+                    if (newValue.doubleValue() >= bar.getMax() * 0.9) fetchNextPage();
+                });
+            }
+        }
+    }
+
+    private void updateStatus() {
+        statusLabel.setText("Rows: " + table.getItems().size()
+                + (exhausted ? " (all rows loaded)" : " (scroll down to load more)"));
+    }
+
+    private S currentSort() {
+        if (table.getSortOrder().isEmpty()) return defaultSort;
+        return sortKeys.getOrDefault(table.getSortOrder().get(0), defaultSort);
+    }
+
+    private boolean currentDescending() {
+        return !table.getSortOrder().isEmpty()
+                && table.getSortOrder().get(0).getSortType() == TableColumn.SortType.DESCENDING;
+    }
+}
@@ -1,17 +1,14 @@
 package com.example.bdsqltester.scenes.user;
 
-import com.example.bdsqltester.datasources.MainDataSource;
+import com.example.bdsqltester.datasources.DatabaseExecutor;
+import com.example.bdsqltester.datasources.GradeRepository;
+import com.example.bdsqltester.dtos.Assignment;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 
-import java.sql.Connection;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-
 public class AverageViewController {
     @FXML
     private TableView<UserController.AssignmentScore> assignmentTable;
@@ -19,6 +16,8 @@ public class AverageViewController {
     private Label averageScoreLabel;
     @FXML
     private Button refreshButton;
+    @FXML
+    private ProgressIndicator loadingIndicator;
 
     private Long userId;
 
@@ -34,22 +33,18 @@ public class AverageViewController {
     }
 
     public void loadData() {
-        ObservableList<UserController.AssignmentScore> scores = FXCollections.observableArrayList();
+        loadingIndicator.setVisible(true);
+        refreshButton.setDisable(true);
+        DatabaseExecutor.onFxThread(GradeRepository.findGradedAssignments(userId), graded -> {
+            loadingIndicator.setVisible(false);
+            refreshButton.setDisable(false);
 
-        try (Connection c = MainDataSource.getConnection()) {
-            String query = "SELECT a.name, g.grade FROM grades g " +
-                    "JOIN assignments a ON g.assignment_id = a.id " +
-                    "WHERE g.user_id = ?";
-            PreparedStatement stmt = c.prepareStatement(query);
-            stmt.setLong(1, userId);
-            ResultSet rs = stmt.executeQuery();
+            ObservableList<UserController.AssignmentScore> scores = FXCollections.observableArrayList();
             int count = 0;
             double total = 0;
-
-            while (rs.next()) {
-                String name = rs.getString("name");
-                double grade = rs.getDouble("grade");
-                scores.add(new UserController.AssignmentScore(name, String.valueOf(grade)));
+            for (Assignment assignment : graded) {
+                double grade = assignment.getGrade().getScore();
+                scores.add(new UserController.AssignmentScore(assignment.name, String.valueOf(grade)));
                 total += grade;
                 count++;
             }
@@ -58,9 +53,10 @@ public class AverageViewController {
             averageScoreLabel.setText(count > 0 ?
                     String.format("Average Score: %.2f", total / count) :
                     "Average Score: N/A");
-
-        } catch (Exception t) {
+        }, t -> {
+            loadingIndicator.setVisible(false);
+            refreshButton.setDisable(false);
             new Alert(Alert.AlertType.ERROR, t.getMessage(), ButtonType.OK).showAndWait();
-        }
+        });
     }
 }
@@ -1,9 +1,17 @@
 package com.example.bdsqltester.scenes.user;
 
-import com.example.bdsqltester.datasources.GradingDataSource;
-import com.example.bdsqltester.datasources.MainDataSource;
+import com.example.bdsqltester.datasources.AssignmentCatalog;
+import com.example.bdsqltester.datasources.AssignmentRepository;
+import com.example.bdsqltester.datasources.DatabaseExecutor;
+import com.example.bdsqltester.datasources.GradeRepository;
+import com.example.bdsqltester.datasources.QueryGovernor;
+import com.example.bdsqltester.datasources.SubmissionRepository;
 import com.example.bdsqltester.dtos.Assignment;
-import javafx.beans.property.SimpleStringProperty;
+import com.example.bdsqltester.scenes.QueryResultWindow;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.PauseTransition;
+import javafx.animation.Timeline;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -11,20 +19,19 @@ import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.scene.layout.StackPane;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 import java.io.IOException;
 import java.net.URL;
-import java.sql.*;
-import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public class UserController {
+    // Setelah ini UI berhenti menunggu nilai; submission tetap di antrian dan nilainya muncul saat assignment dibuka lagi
+    private static final long GRADE_WAIT_MILLIS = 60_000;
 
     // Main UI Components
     @FXML private Label assignmentNameLabel;
@@ -32,15 +39,19 @@ public class UserController {
     @FXML private TextArea userAnswerArea;
     @FXML private ListView<Assignment> assignmentListView;
     @FXML private Label gradeLabel;
+    @FXML private ProgressIndicator loadingIndicator;
 
     // Data fields
     private Long loggedInUserId;
     private Assignment currentAssignment;
     private final ObservableList<Assignment> assignments = FXCollections.observableArrayList();
+    private List<Assignment> loadedCatalog;
+    private int pendingTasks;
 
     public void setLoggedInUserId(Long userId) {
         this.loggedInUserId = userId;
         refreshAssignmentList();
+        startCatalogPolling();
     }
 
     @FXML
@@ -70,23 +81,50 @@ public class UserController {
     }
 
     void refreshAssignmentList() {
-        assignments.clear();
-        try (Connection c = MainDataSource.getConnection()) {
-            Statement stmt = c.createStatement();
-            ResultSet rs = stmt.executeQuery("SELECT * FROM assignments");
-            while (rs.next()) {
-                assignments.add(new Assignment(rs));
+        track(AssignmentCatalog.list(), this::applyCatalog,
+                e -> showAlert("Database Error", "Failed to load assignments.", e.toString()));
+    }
+
+    /** Mengecek versi daftar assignment secara berkala; berhenti sendiri setelah jendela ditutup. */
+    private void startCatalogPolling() {
+        if (AssignmentCatalog.POLL_INTERVAL_SECONDS <= 0) return;
+        Timeline poll = new Timeline();
+        poll.getKeyFrames().add(new KeyFrame(Duration.seconds(AssignmentCatalog.POLL_INTERVAL_SECONDS), event -> {
+            if (assignmentListView.getScene() == null || !assignmentListView.getScene().getWindow().isShowing()) {
+                poll.stop();
+                return;
             }
-        } catch (SQLException e) {
-            showAlert("Database Error", "Failed to load assignments.", e.toString());
-        }
+            // Gagal saat poll tidak perlu alert; dicoba lagi pada poll berikutnya
+            DatabaseExecutor.onFxThread(AssignmentCatalog.list(), this::applyCatalog, e -> { });
+        }));
+        poll.setCycleCount(Animation.INDEFINITE);
+        poll.play();
+    }
+
+    private void applyCatalog(List<Assignment> loaded) {
+        // Instance yang sama berarti versi daftar tidak berubah
+        if (loaded == loadedCatalog) return;
+        loadedCatalog = loaded;
+        Long selectedId = currentAssignment != null ? currentAssignment.id : null;
+        assignments.setAll(loaded);
         assignmentListView.setItems(assignments);
+        if (selectedId != null) {
+            assignments.stream()
+                    .filter(assignment -> assignment.id == selectedId)
+                    .findFirst()
+                    .ifPresent(assignment -> assignmentListView.getSelectionModel().select(assignment));
+        }
     }
 
     void displayAssignmentDetails(Assignment assignment) {
         assignmentNameLabel.setText(assignment.name);
-        assignmentInstructionsArea.setText(assignment.instructions);
+        assignmentInstructionsArea.setText("");
         userAnswerArea.clear();
+        track(AssignmentRepository.findInstructions(assignment.id), instructions -> {
+            if (currentAssignment != null && currentAssignment.id == assignment.id) {
+                assignmentInstructionsArea.setText(instructions);
+            }
+        }, e -> showAlert("Database Error", "Failed to load instructions.", e.toString()));
     }
 
     void clearAssignmentDetails() {
@@ -97,17 +135,12 @@ public class UserController {
 
     void loadUserGrade(Long assignmentId) {
         if (loggedInUserId != null && assignmentId != null) {
-            try (Connection c = MainDataSource.getConnection()) {
-                String query = "SELECT grade FROM grades WHERE user_id = ? AND assignment_id = ?";
-                PreparedStatement stmt = c.prepareStatement(query);
-                stmt.setLong(1, loggedInUserId);
-                stmt.setLong(2, assignmentId);
-                ResultSet rs = stmt.executeQuery();
-                gradeLabel.setText(rs.next() ? "Grade: " + rs.getDouble("grade") : "Grade: -");
-            } catch (SQLException e) {
-                showAlert("Database Error", "Failed to load grade", e.toString());
-                gradeLabel.setText("Grade: Error");
-            }
+            track(GradeRepository.findGrade(loggedInUserId, assignmentId),
+                    grade -> gradeLabel.setText(grade != null ? "Grade: " + grade : "Grade: -"),
+                    e -> {
+                        showAlert("Database Error", "Failed to load grade", e.toString());
+                        gradeLabel.setText("Grade: Error");
+                    });
         } else {
             gradeLabel.setText("Grade: -");
         }
@@ -120,43 +153,8 @@ public class UserController {
             return;
         }
 
-        Stage stage = new Stage();
-        TableView<ArrayList<String>> tableView = new TableView<>();
-        ObservableList<ArrayList<String>> data = FXCollections.observableArrayList();
-        ArrayList<String> headers = new ArrayList<>();
-
-        try (Connection conn = GradingDataSource.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(userAnswerArea.getText())) {
-
-            ResultSetMetaData metaData = rs.getMetaData();
-            for (int i = 1; i <= metaData.getColumnCount(); i++) {
-                final int columnIndex = i - 1;
-                String headerText = metaData.getColumnLabel(i);
-                headers.add(headerText);
-                TableColumn<ArrayList<String>, String> column = new TableColumn<>(headerText);
-                column.setCellValueFactory(cellData ->
-                        new SimpleStringProperty(cellData.getValue().get(columnIndex)));
-                tableView.getColumns().add(column);
-            }
-
-            while (rs.next()) {
-                ArrayList<String> row = new ArrayList<>();
-                for (int i = 1; i <= metaData.getColumnCount(); i++) {
-                    row.add(rs.getString(i) != null ? rs.getString(i) : "");
-                }
-                data.add(row);
-            }
-
-            tableView.setItems(data);
-            StackPane root = new StackPane(tableView);
-            stage.setScene(new Scene(root, 800, 600));
-            stage.setTitle("Query Results");
-            stage.show();
-
-        } catch (SQLException e) {
-            showAlert("Database Error", "Query Failed", e.getMessage());
-        }
+        QueryResultWindow.show("Query Results", userAnswerArea.getText(), QueryGovernor.ROLE_STUDENT, null,
+                e -> showAlert("Database Error", "Query Failed", e.getMessage()));
     }
 
     @FXML
@@ -167,27 +165,53 @@ public class UserController {
         }
 
         String userAnswer = userAnswerArea.getText();
-        int newGrade = calculateGrade(userAnswer, currentAssignment.answerKey);
-
-        try (Connection c = MainDataSource.getConnection()) {
-            // Gunakan query yang hanya update jika nilai baru lebih tinggi
-            String query = "INSERT INTO grades (user_id, assignment_id, grade) " +
-                    "VALUES (?, ?, ?) " +
-                    "ON CONFLICT (user_id, assignment_id) DO UPDATE SET " +
-                    "grade = CASE WHEN EXCLUDED.grade > grades.grade THEN EXCLUDED.grade ELSE grades.grade END";
-
-            PreparedStatement stmt = c.prepareStatement(query);
-            stmt.setLong(1, loggedInUserId);
-            stmt.setLong(2, currentAssignment.id);
-            stmt.setInt(3, newGrade);
-            stmt.executeUpdate();
-
-            // Tampilkan nilai yang baru didapatkan dan nilai terbaik
-            gradeLabel.setText("Grade: " + newGrade);
-            showAlert("Submission Successful", null, "Your grade for this submission: " + newGrade);
-            loadUserGrade(currentAssignment.id); // Muat ulang nilai terbaik dari database untuk label (opsional, tapi baik untuk sinkronisasi)
-        } catch (SQLException e) {
-            showAlert("Database Error", "Submission Failed", e.getMessage());
+        Assignment assignment = currentAssignment;
+
+        // Submission masuk antrian dan dinilai oleh GradingWorkerPool; UI hanya menunggu statusnya
+        track(SubmissionRepository.submit(loggedInUserId, assignment.id, userAnswer), submissionId -> {
+            gradeLabel.setText("Grade: grading...");
+            waitForGrade(submissionId, assignment.id, 0, System.nanoTime() + GRADE_WAIT_MILLIS * 1_000_000L);
+        }, e -> showAlert("Database Error", "Submission Failed", e.getMessage()));
+    }
+
+    private void waitForGrade(long submissionId, long assignmentId, int attempt, long deadlineNanos) {
+        PauseTransition delay = new PauseTransition(Duration.millis(Math.min(250L * (attempt + 1), 2000L)));
+        delay.setOnFinished(event -> {
+            // Jendela sudah ditutup (logout atau aplikasi keluar): berhenti polling
+            if (gradeLabel.getScene() == null || gradeLabel.getScene().getWindow() == null
+                    || !gradeLabel.getScene().getWindow().isShowing()) return;
+            track(SubmissionRepository.findStatus(submissionId), status -> {
+                if (status != null && status.isDone()) {
+                    showGradeResult(status, assignmentId);
+                } else if (System.nanoTime() - deadlineNanos < 0) {
+                    waitForGrade(submissionId, assignmentId, attempt + 1, deadlineNanos);
+                } else if (status == null || status.isPending()) {
+                    gradeLabel.setText("Grade: queued");
+                    showAlert("Submission Queued", null, "Your submission is saved, but no grader has picked it up yet. "
+                            + "Select the assignment again later to see your grade.");
+                } else {
+                    gradeLabel.setText("Grade: still grading");
+                    showAlert("Submission Queued", null, "Your submission is still being graded. "
+                            + "Select the assignment again later to see your grade.");
+                }
+            }, e -> showAlert("Database Error", "Failed to load grade", e.getMessage()));
+        });
+        delay.play();
+    }
+
+    private void showGradeResult(SubmissionRepository.SubmissionStatus status, long assignmentId) {
+        if (status.isFailed()) {
+            gradeLabel.setText("Grade: -");
+            showAlert("Grading Failed", null, "Your submission could not be graded: " + status.error);
+            return;
+        }
+        // Tampilkan nilai yang baru didapatkan dan nilai terbaik
+        gradeLabel.setText("Grade: " + status.grade);
+        String message = "Your grade for this submission: " + status.grade;
+        if (status.datasetGrades != null) message += "\nPer dataset: " + status.datasetGrades;
+        showAlert("Submission Successful", null, message);
+        if (currentAssignment != null && currentAssignment.id == assignmentId) {
+            loadUserGrade(assignmentId); // Muat ulang nilai terbaik dari database untuk label (opsional, tapi baik untuk sinkronisasi)
         }
     }
 
@@ -229,41 +253,21 @@ public class UserController {
         }
     }
 
-    private int calculateGrade(String userAnswer, String correctAnswer) {
-        List<String> userResults = executeQuery(userAnswer);
-        List<String> correctResults = executeQuery(correctAnswer);
-
-        // Exact match - 100%
-        if (userResults.equals(correctResults)) return 100;
-
-        // Convert to sets for unordered comparison (50% score)
-        Set<String> userSet = new HashSet<>(userResults);
-        Set<String> correctSet = new HashSet<>(correctResults);
-
-        if (userSet.equals(correctSet)) return 50;
-
-        return 0;
+    private <T> void track(CompletableFuture<T> future, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        pendingTasks++;
+        loadingIndicator.setVisible(true);
+        DatabaseExecutor.onFxThread(future, result -> {
+            finishTask();
+            onSuccess.accept(result);
+        }, error -> {
+            finishTask();
+            onError.accept(error);
+        });
     }
 
-    private List<String> executeQuery(String query) {
-        List<String> results = new ArrayList<>();
-        try (Connection conn = GradingDataSource.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-
-            ResultSetMetaData meta = rs.getMetaData();
-            while (rs.next()) {
-                StringBuilder row = new StringBuilder();
-                for (int i = 1; i <= meta.getColumnCount(); i++) {
-                    if (i > 1) row.append(",");
-                    row.append(rs.getString(i) != null ? rs.getString(i) : "");
-                }
-                results.add(row.toString());
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return results;
+    private void finishTask() {
+        pendingTasks--;
+        loadingIndicator.setVisible(pendingTasks > 0);
     }
 
     private void showAlert(String title, String header, String content) {
@@ -19,6 +19,9 @@ module com.example.bdsqltester {
     opens com.example.bdsqltester.scenes.admin to javafx.fxml;
     exports com.example.bdsqltester.scenes.user;
     opens com.example.bdsqltester.scenes.user to javafx.fxml;
+    exports com.example.bdsqltester.grading;
+    exports com.example.bdsqltester.cli;
+    exports com.example.bdsqltester.auth;
     exports com.example.bdsqltester.dtos;
     opens com.example.bdsqltester.dtos to javafx.base, javafx.fxml; // Tambahkan baris ini untuk mengekspor package dtos
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.example.bdsqltester.auth;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHasherTest {
+    private static final int ITERATIONS = 1000;
+
+    @Test
+    void hashVerifiesOnlyTheSamePassword() {
+        String stored = PasswordHasher.hash("rahasia", ITERATIONS);
+        assertTrue(PasswordHasher.isHashed(stored));
+        assertTrue(PasswordHasher.verify("rahasia", stored));
+        assertFalse(PasswordHasher.verify("Rahasia", stored));
+    }
+
+    @Test
+    void saltMakesEveryHashDifferent() {
+        assertNotEquals(PasswordHasher.hash("rahasia", ITERATIONS), PasswordHasher.hash("rahasia", ITERATIONS));
+    }
+
+    @Test
+    void plainTextPasswordsStillVerify() {
+        assertFalse(PasswordHasher.isHashed("rahasia"));
+        assertTrue(PasswordHasher.verify("rahasia", "rahasia"));
+        assertFalse(PasswordHasher.verify("rahasia", null));
+    }
+
+    @Test
+    void malformedHashDoesNotVerify() {
+        assertFalse(PasswordHasher.verify("rahasia", "pbkdf2-sha256$1000$!!!$!!!"));
+        assertFalse(PasswordHasher.verify("rahasia", "pbkdf2-sha256$1000"));
+    }
+
+    @Test
+    void needsRehashForPlainTextOrFewerIterations() {
+        String stored = PasswordHasher.hash("rahasia", ITERATIONS);
+        assertTrue(PasswordHasher.needsRehash("rahasia", ITERATIONS));
+        assertTrue(PasswordHasher.needsRehash(stored, ITERATIONS * 2));
+        assertFalse(PasswordHasher.needsRehash(stored, ITERATIONS));
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.bdsqltester.datasources;
+
+import com.example.bdsqltester.datasources.GradeChangeListener.GradeChange;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GradeChangeListenerTest {
+
+    @Test
+    void parsesPayload() {
+        GradeChange change = GradeChange.parse("UPDATE,7,42,50,100,budi,jr");
+        assertEquals("UPDATE", change.operation);
+        assertEquals(7, change.assignmentId);
+        assertEquals(42, change.userId);
+        assertEquals(50.0, change.oldGrade);
+        assertEquals(100.0, change.newGrade);
+        // Username boleh mengandung koma karena field terakhir
+        assertEquals("budi,jr", change.username);
+        assertFalse(change.isDelete());
+    }
+
+    @Test
+    void emptyFieldsAreNull() {
+        GradeChange change = GradeChange.parse("DELETE,7,42,80,,");
+        assertTrue(change.isDelete());
+        assertNull(change.newGrade);
+        assertNull(change.username);
+    }
+
+    @Test
+    void malformedPayloadIsIgnored() {
+        assertNull(GradeChange.parse("UPDATE,7"));
+        assertNull(GradeChange.parse("UPDATE,x,42,50,100,budi"));
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.bdsqltester.datasources;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class KeysetTest {
+    private static final String[] COLUMNS = {"username", "id"};
+
+    @Test
+    void orderByAppliesDirectionToEveryColumn() {
+        assertEquals(" ORDER BY username, id", Keyset.orderBy(COLUMNS, false));
+        assertEquals(" ORDER BY username DESC, id DESC", Keyset.orderBy(COLUMNS, true));
+    }
+
+    @Test
+    void afterComparesRowValues() {
+        assertEquals(" AND (username, id) > (?, ?)", Keyset.after(COLUMNS, false));
+        assertEquals(" AND (username, id) < (?, ?)", Keyset.after(COLUMNS, true));
+    }
+
+    @Test
+    void containsPatternEscapesWildcards() {
+        assertEquals("%ab%", Keyset.containsPattern("ab"));
+        assertEquals("%50\\%\\_x\\\\%", Keyset.containsPattern("50%_x\\"));
+    }
+}
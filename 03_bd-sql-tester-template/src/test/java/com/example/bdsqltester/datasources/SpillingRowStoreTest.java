@@ -0,0 +1,54 @@
+package com.example.bdsqltester.datasources;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpillingRowStoreTest {
+
+    @Test
+    void rowsReadBackTheSameBeforeAndAfterSpilling() {
+        try (SpillingRowStore store = new SpillingRowStore(3)) {
+            for (int i = 0; i < 10; i++) {
+                store.append(row(i));
+                assertEquals(i >= 3, store.isSpilled());
+            }
+            assertEquals(10, store.size());
+            for (int i = 0; i < 10; i++) {
+                assertEquals(row(i), store.get(i));
+            }
+        }
+    }
+
+    @Test
+    void heapOnlyBelowThreshold() {
+        try (SpillingRowStore store = new SpillingRowStore(100)) {
+            store.append(row(0));
+            assertFalse(store.isSpilled());
+            assertEquals(row(0), store.get(0));
+        }
+    }
+
+    @Test
+    void closedStoreRejectsAppendsAndReads() {
+        SpillingRowStore store = new SpillingRowStore(0);
+        store.append(row(0));
+        assertTrue(store.isSpilled());
+        store.close();
+        store.close();
+        assertThrows(IllegalStateException.class, () -> store.append(row(1)));
+        assertThrows(IllegalStateException.class, () -> store.get(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> new SpillingRowStore(0).get(0));
+    }
+
+    /** Termasuk null dan teks non-ASCII, yang harus tetap utuh setelah ditulis ke file. */
+    private static List<String> row(int i) {
+        return Arrays.asList(String.valueOf(i), i % 2 == 0 ? null : "", "naïve-" + i);
+    }
+}
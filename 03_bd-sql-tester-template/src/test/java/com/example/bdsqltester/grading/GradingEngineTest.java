@@ -0,0 +1,127 @@
+package com.example.bdsqltester.grading;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GradingEngineTest {
+
+    @Test
+    void sameRowsSameOrderGetsFullScore() throws SQLException {
+        assertGrade(GradingEngine.FULL_SCORE, rows(row("1", "a"), row("2", "b")), rows(row("1", "a"), row("2", "b")));
+    }
+
+    @Test
+    void emptyResultsGetFullScore() throws SQLException {
+        assertGrade(GradingEngine.FULL_SCORE, rows(), rows());
+    }
+
+    @Test
+    void sameRowsDifferentOrderGetsUnorderedScore() throws SQLException {
+        assertGrade(GradingEngine.UNORDERED_SCORE, rows(row("2", "b"), row("1", "a")), rows(row("1", "a"), row("2", "b")));
+    }
+
+    @Test
+    void duplicateRowsAreComparedAsDistinctRows() throws SQLException {
+        assertGrade(GradingEngine.UNORDERED_SCORE, rows(row("1"), row("1"), row("2")), rows(row("1"), row("2")));
+    }
+
+    @Test
+    void differentRowsGetNoScore() throws SQLException {
+        assertGrade(GradingEngine.NO_SCORE, rows(row("1"), row("3")), rows(row("1"), row("2")));
+        assertGrade(GradingEngine.NO_SCORE, rows(row("1")), rows(row("1"), row("2")));
+        assertGrade(GradingEngine.NO_SCORE, rows(), rows(row("1")));
+    }
+
+    @Test
+    void nullIsGradedLikeEmptyString() throws SQLException {
+        assertGrade(GradingEngine.FULL_SCORE, rows(row("1", null)), rows(row("1", "")));
+    }
+
+    @Test
+    void columnBoundariesAreHashed() throws SQLException {
+        assertGrade(GradingEngine.NO_SCORE, rows(row("ab", "c")), rows(row("a", "bc")));
+    }
+
+    @Test
+    void cachedUserResultUsesSameRules() {
+        AnswerKeyFingerprint key = fingerprint(1, 2, 3);
+        assertEquals(GradingEngine.FULL_SCORE, GradingEngine.compare(fingerprint(1, 2, 3), key));
+        assertEquals(GradingEngine.UNORDERED_SCORE, GradingEngine.compare(fingerprint(3, 1, 2), key));
+        assertEquals(GradingEngine.NO_SCORE, GradingEngine.compare(fingerprint(1, 2), key));
+    }
+
+    @Test
+    void recorderKeepsUserRowsUpToLimit() throws SQLException {
+        String[][] user = rows(row("1"), row("2"));
+
+        RowHashRecorder recorder = new RowHashRecorder(10);
+        GradingEngine.compare(resultSet(user), keyOf(rows(row("2"), row("1"))), recorder);
+        AnswerKeyFingerprint recorded = recorder.toFingerprint();
+        assertNotNull(recorded);
+        assertEquals(GradingEngine.FULL_SCORE, GradingEngine.compare(recorded, keyOf(user)));
+
+        RowHashRecorder small = new RowHashRecorder(1);
+        GradingEngine.compare(resultSet(user), keyOf(user), small);
+        assertNull(small.toFingerprint());
+    }
+
+    private static void assertGrade(int expected, String[][] user, String[][] key) throws SQLException {
+        assertEquals(expected, GradingEngine.compare(resultSet(user), resultSet(key)), "ResultSet vs ResultSet");
+        assertEquals(expected, GradingEngine.compare(resultSet(user), keyOf(key)), "ResultSet vs fingerprint");
+        assertEquals(expected, GradingEngine.compare(keyOf(user), keyOf(key)), "fingerprint vs fingerprint");
+    }
+
+    private static AnswerKeyFingerprint keyOf(String[][] rows) throws SQLException {
+        RowHashRecorder recorder = new RowHashRecorder(Integer.MAX_VALUE);
+        ResultSet rs = resultSet(rows);
+        int columns = rs.getMetaData().getColumnCount();
+        while (rs.next()) {
+            recorder.add(RowHasher.hashRow(rs, columns));
+        }
+        return recorder.toFingerprint();
+    }
+
+    private static AnswerKeyFingerprint fingerprint(long... hashes) {
+        return new AnswerKeyFingerprint(hashes);
+    }
+
+    private static String[][] rows(String[]... rows) {
+        return rows;
+    }
+
+    private static String[] row(String... values) {
+        return values;
+    }
+
+    /** ResultSet di memori yang hanya mendukung next, getBytes dan jumlah kolom. */
+    private static ResultSet resultSet(String[][] rows) {
+        int columns = rows.length == 0 ? 1 : rows[0].length;
+        ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(
+                GradingEngineTest.class.getClassLoader(), new Class<?>[]{ResultSetMetaData.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("getColumnCount")) return columns;
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        int[] position = {-1};
+        return (ResultSet) Proxy.newProxyInstance(
+                GradingEngineTest.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "next" -> ++position[0] < rows.length;
+                    case "getMetaData" -> metaData;
+                    case "getBytes" -> {
+                        String value = rows[position[0]][(Integer) args[0] - 1];
+                        yield value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
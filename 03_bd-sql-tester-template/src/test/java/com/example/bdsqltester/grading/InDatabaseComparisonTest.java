@@ -0,0 +1,28 @@
+package com.example.bdsqltester.grading;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InDatabaseComparisonTest {
+
+    @Test
+    void unwrapStatementDropsTrailingSemicolons() {
+        assertEquals("SELECT 1", InDatabaseComparison.unwrapStatement("  SELECT 1 ;\n; "));
+        assertEquals("SELECT 1", InDatabaseComparison.unwrapStatement("SELECT 1"));
+    }
+
+    @Test
+    void unwrapStatementRejectsMultipleOrEmptyStatements() {
+        assertNull(InDatabaseComparison.unwrapStatement("SELECT 1; SELECT 2"));
+        assertNull(InDatabaseComparison.unwrapStatement(" ; "));
+    }
+
+    @Test
+    void trailingLineCommentDoesNotCloseSubquery() {
+        String sql = InDatabaseComparison.comparisonSql("SELECT 1 -- komentar", "SELECT 1");
+        assertTrue(sql.contains("SELECT 1 -- komentar\n"));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.bdsqltester.grading;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryFingerprintTest {
+
+    @Test
+    void normalizesCaseWhitespaceCommentsAndTableAliases() {
+        String a = QueryFingerprint.of("SELECT e.first_name AS Name\n  FROM Employees e WHERE e.salary > 1000 -- komentar");
+        String b = QueryFingerprint.of("select E.first_name as name from employees AS E where E.salary>1000;");
+        assertEquals(a, b);
+        assertEquals("select #t1 . first_name as name from employees #t1 where #t1 . salary > 1000", a);
+    }
+
+    @Test
+    void keepsLiteralsQuotedIdentifiersAndColumnAliases() {
+        assertNotEquals(QueryFingerprint.of("SELECT 'A' FROM t"), QueryFingerprint.of("SELECT 'a' FROM t"));
+        assertNotEquals(QueryFingerprint.of("SELECT \"Name\" FROM t"), QueryFingerprint.of("SELECT name FROM t"));
+        assertNotEquals(QueryFingerprint.of("SELECT x AS a FROM t"), QueryFingerprint.of("SELECT x AS b FROM t"));
+        // Huruf non-ASCII tidak diubah ke huruf kecil oleh PostgreSQL
+        assertNotEquals(QueryFingerprint.of("SELECT Ädam FROM t"), QueryFingerprint.of("SELECT ädam FROM t"));
+    }
+
+    @Test
+    void aliasUsedWithoutQualifierIsNotRenamed() {
+        assertEquals("select e from employees e", QueryFingerprint.of("SELECT e FROM employees e"));
+    }
+
+    @Test
+    void allowListedCallsAreCacheable() {
+        assertTrue(cacheable("SELECT count(*), round(avg(salary)::numeric(10, 2), 2) FROM employees"));
+        assertTrue(cacheable("SELECT * FROM t WHERE id IN (1, 2) AND EXISTS (SELECT 1 FROM u)"));
+        assertTrue(cacheable("SELECT upper(name), row_number() OVER (ORDER BY id) FROM t"));
+    }
+
+    @Test
+    void volatileOrUnknownCallsAreNotCacheable() {
+        assertFalse(cacheable("SELECT now()"));
+        assertFalse(cacheable("SELECT pg_catalog.now()"));
+        assertFalse(cacheable("SELECT random() FROM t"));
+        assertFalse(cacheable("SELECT nextval('s')"));
+        assertFalse(cacheable("SELECT my_func(1)"));
+        assertFalse(cacheable("SELECT CURRENT_DATE"));
+        assertFalse(cacheable("SELECT current_user"));
+    }
+
+    private static boolean cacheable(String sql) {
+        return QueryFingerprint.isCacheable(QueryFingerprint.of(sql));
+    }
+}